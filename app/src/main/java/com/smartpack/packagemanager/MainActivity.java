@@ -13,6 +13,8 @@ import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.smartpack.packagemanager.fragments.PackageTasksFragment;
+import com.smartpack.packagemanager.utils.IconCache;
+import com.smartpack.packagemanager.utils.PackageReceiver;
 import com.smartpack.packagemanager.utils.Utils;
 
 /*
@@ -28,8 +30,17 @@ public class MainActivity extends AppCompatActivity {
         Utils.setLanguage(this);
         setContentView(R.layout.activity_main);
 
+        // Keep the package inventory in sync with installs, updates and removals
+        PackageReceiver.register(this);
+
         getSupportFragmentManager().beginTransaction().replace(R.id.fragment_container,
                 new PackageTasksFragment()).commit();
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        IconCache.trimMemory(level);
+    }
+
 }
\ No newline at end of file
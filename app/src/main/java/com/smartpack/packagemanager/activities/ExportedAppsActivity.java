@@ -176,19 +176,19 @@ public class ExportedAppsActivity extends AppCompatActivity {
         });
 
         mRecycleViewAdapter.setOnItemClickListener((position, v) -> new MaterialAlertDialogBuilder(this)
-                .setMessage(getString(Downloads.getData(this).get(position).endsWith(".apkm") ? R.string.bundle_install_apks
-                        : R.string.install_question, new File(Downloads.getData(this).get(position)).getName()))
+                .setMessage(getString(mRecycleViewAdapter.getItem(position).endsWith(".apkm") ? R.string.bundle_install_apks
+                        : R.string.install_question, new File(mRecycleViewAdapter.getItem(position)).getName()))
                 .setNegativeButton(R.string.cancel, (dialog, id) -> {
                 })
                 .setPositiveButton(R.string.install, (dialog, id) -> {
-                    if (Downloads.getData(this).get(position).endsWith(".apkm")) {
-                        SplitAPKInstaller.handleAppBundle(mProgressLayout, Downloads.getData(this).get(position), this);
+                    if (mRecycleViewAdapter.getItem(position).endsWith(".apkm")) {
+                        SplitAPKInstaller.handleAppBundle(mProgressLayout, mRecycleViewAdapter.getItem(position), this);
                     } else {
                         Intent intent = new Intent(Intent.ACTION_INSTALL_PACKAGE);
                         intent.setFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
                         Uri uriFile;
                         uriFile = FileProvider.getUriForFile(this, BuildConfig.APPLICATION_ID + ".provider",
-                                new File(Downloads.getData(this).get(position)));
+                                new File(mRecycleViewAdapter.getItem(position)));
                         intent.setDataAndType(uriFile, "application/vnd.android.package-archive");
                         startActivity(Intent.createChooser(intent, ""));
                     }
@@ -197,8 +197,12 @@ public class ExportedAppsActivity extends AppCompatActivity {
     }
 
     private void loadUI() {
-        mRecycleViewAdapter = new RecycleViewExportedAppsAdapter(Downloads.getData(this));
-        mRecyclerView.setAdapter(mRecycleViewAdapter);
+        if (mRecycleViewAdapter == null) {
+            mRecycleViewAdapter = new RecycleViewExportedAppsAdapter(Downloads.getData(this));
+            mRecyclerView.setAdapter(mRecycleViewAdapter);
+        } else {
+            mRecycleViewAdapter.submitList(Downloads.getData(this));
+        }
     }
 
     private int getTabPosition(Activity activity) {
@@ -20,6 +20,7 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textview.MaterialTextView;
 import com.smartpack.packagemanager.R;
 import com.smartpack.packagemanager.utils.Common;
+import com.smartpack.packagemanager.utils.IconCache;
 import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.PackageExplorer;
 
@@ -51,6 +52,8 @@ public class ImageViewActivity extends AppCompatActivity {
         } else {
             mTitle.setText(Common.getApplicationName());
             mImage.setImageDrawable(Common.getApplicationIcon());
+            IconCache.load(mImage, Common.getApplicationID(), PackageData.getUpdatedTime(Common.getApplicationID(), this),
+                    Math.min(getResources().getDisplayMetrics().widthPixels, 512));
         }
 
         mExport.setOnClickListener(v -> new MaterialAlertDialogBuilder(this)
@@ -28,13 +28,12 @@ import com.smartpack.packagemanager.fragments.PermissionsFragment;
 import com.smartpack.packagemanager.fragments.SplitApksFragment;
 import com.smartpack.packagemanager.utils.AppOps;
 import com.smartpack.packagemanager.utils.Common;
+import com.smartpack.packagemanager.utils.IconCache;
 import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.PackageDetails;
-import com.smartpack.packagemanager.utils.SplitAPKInstaller;
+import com.smartpack.packagemanager.utils.SplitInventory;
 import com.smartpack.packagemanager.utils.Utils;
 
-import java.io.File;
-
 /*
  * Created by sunilpaulmathew <sunil.kde@gmail.com> on September 22, 2020
  */
@@ -54,12 +53,13 @@ public class PackageDetailsActivity extends AppCompatActivity {
         ViewPager mViewPager = findViewById(R.id.view_pager);
 
         mAppIcon.setImageDrawable(Common.getApplicationIcon());
+        IconCache.load(mAppIcon, Common.getApplicationID(), PackageData.getUpdatedTime(Common.getApplicationID(), this));
         mAppName.setText(Common.getApplicationName());
         mVersion.setText(getString(R.string.version, PackageData.getVersionName(Common.getSourceDir(), this)));
 
         PagerAdapter adapter = new PagerAdapter(getSupportFragmentManager());
         adapter.AddFragment(new PackageInfoFragment(), getString(R.string.app_info));
-        if (new File(PackageData.getSourceDir(Common.getApplicationID(), this)).getName().equals("base.apk") && SplitAPKInstaller.splitApks(PackageData.getParentDir(Common.getApplicationID(), this)).size() > 1) {
+        if (SplitInventory.of(Common.getApplicationID(), this).isBundle()) {
             adapter.AddFragment(new SplitApksFragment(), getString(R.string.split_apk));
         }
         if (PackageDetails.getPermissions(Common.getApplicationID(), this).size() > 0) {
@@ -34,6 +34,7 @@ import com.smartpack.packagemanager.utils.RecycleSettingsItem;
 import com.smartpack.packagemanager.utils.Utils;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /*
  * Created by sunilpaulmathew <sunil.kde@gmail.com> on February 10, 2020
@@ -81,6 +82,7 @@ public class SettingsActivity extends AppCompatActivity {
         mData.add(new RecycleSettingsItem(getString(R.string.exported_apps_name), AppSettings.getExportedAPKNAme(this), getResources().getDrawable(R.drawable.ic_pencil), null, 0, 18));
         mData.add(new RecycleSettingsItem(getString(R.string.installer_clicking), AppSettings.getInstallerStatus(this), getResources().getDrawable(R.drawable.ic_install), null, 0, 18));
         mData.add(new RecycleSettingsItem(getString(R.string.exiting_app), AppSettings.getExitingStatus(this), getResources().getDrawable(R.drawable.ic_exit), null, 0, 18));
+        mData.add(new RecycleSettingsItem(getString(R.string.scan_threads), AppSettings.getScanThreadsDescription(this), getResources().getDrawable(R.drawable.ic_settings), null, 0, 18));
 
         // Other
         mData.add(new RecycleSettingsItem(getString(R.string.other), null, null, null, getResources().getColor(R.color.colorAccent), 15));
@@ -210,12 +212,26 @@ public class SettingsActivity extends AppCompatActivity {
                     }
                 }).setOnDismissListener(dialogInterface -> {
                 }).show();
-            } else if (position == 11) {
+            } else if (position == 7) {
+                int cores = Runtime.getRuntime().availableProcessors();
+                List<String> options = new ArrayList<>();
+                options.add(getString(R.string.scan_threads_auto, cores));
+                for (int threads = 1; threads <= cores; threads *= 2) {
+                    options.add(String.valueOf(threads));
+                }
+                new MaterialAlertDialogBuilder(this).setItems(options.toArray(new String[0]), (dialogInterface, i) -> {
+                    Utils.saveInt("scan_threads", i == 0 ? 0 : Integer.parseInt(options.get(i)), this);
+                    mData.set(position, new RecycleSettingsItem(getString(R.string.scan_threads), AppSettings.getScanThreadsDescription(this),
+                            getResources().getDrawable(R.drawable.ic_settings), null, 0, 18));
+                    mRecycleViewAdapter.notifyItemChanged(position);
+                }).setOnDismissListener(dialogInterface -> {
+                }).show();
+            } else if (position == 12) {
                 Billing.showDonateOption(this);
-            } else if (position == 15) {
+            } else if (position == 16) {
                 Intent changeLogs = new Intent(this, ChangeLogsActivity.class);
                 startActivity(changeLogs);
-            } else if (position == 16) {
+            } else if (position == 17) {
                 Intent share_app = new Intent();
                 share_app.setAction(Intent.ACTION_SEND);
                 share_app.putExtra(Intent.EXTRA_SUBJECT, getString(R.string.app_name));
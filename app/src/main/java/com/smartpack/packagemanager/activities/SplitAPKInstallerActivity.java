@@ -25,12 +25,10 @@ import com.google.android.material.textview.MaterialTextView;
 import com.smartpack.packagemanager.R;
 import com.smartpack.packagemanager.utils.Common;
 import com.smartpack.packagemanager.utils.PackageData;
-import com.smartpack.packagemanager.utils.RecycleViewItem;
+import com.smartpack.packagemanager.utils.Settings;
 import com.smartpack.packagemanager.utils.SplitAPKInstaller;
 import com.smartpack.packagemanager.utils.Utils;
 
-import java.io.File;
-import java.util.Objects;
 
 /*
  * Created by sunilpaulmathew <sunil.kde@gmail.com> on March 06, 2021
@@ -41,6 +39,12 @@ public class SplitAPKInstallerActivity extends AppCompatActivity {
     private MaterialCardView mCancel, mOpen;
     private MaterialTextView mStatus, mTitle;
     private ProgressBar mProgress;
+    // The install service reports through the installationStatus setting, shown as soon as it changes
+    private final Settings.OnChangeListener mStatusListener = name -> {
+        if (name.equals("installationStatus")) {
+            runOnUiThread(() -> refreshStatus(this));
+        }
+    };
 
     @SuppressLint({"UseCompatLoadingForDrawables", "StringFormatInvalid"})
     @Override
@@ -74,49 +78,32 @@ public class SplitAPKInstallerActivity extends AppCompatActivity {
             } else {
                 Utils.snackbar(findViewById(android.R.id.content), getString(R.string.open_failed, PackageData.getAppName(Common.getApplicationID(), this)));
             }
-            PackageData.getRawData().add(new RecycleViewItem(Common.getApplicationID(),
-                    PackageData.getAppName(Common.getApplicationID(), this),
-                    PackageData.getAppIcon(Common.getApplicationID(), this),
-                    new File(PackageData.getSourceDir(Common.getApplicationID(), this)).length(),
-                    Objects.requireNonNull(PackageData.getPackageInfo(Common.getApplicationID(), this)).firstInstallTime,
-                    Objects.requireNonNull(PackageData.getPackageInfo(Common.getApplicationID(), this)).lastUpdateTime));
             Common.reloadPage(true);
         });
 
         mCancel.setOnClickListener(v -> onBackPressed());
 
+        Settings.get(this).addListener(mStatusListener);
         refreshStatus(this);
     }
 
+    @SuppressLint("StringFormatInvalid")
     public void refreshStatus(Activity activity) {
-        new Thread() {
-            @SuppressLint("StringFormatInvalid")
-            @Override
-            public void run() {
+        String installationStatus = Utils.getString("installationStatus", "waiting", activity);
+        if (installationStatus.equals("waiting")) {
+            mStatus.setText(getString(R.string.installing_bundle));
+        } else {
+            mStatus.setText(getString(R.string.result, installationStatus));
+            if (installationStatus.equals(getString(R.string.installation_status_success))) {
                 try {
-                    while (!isInterrupted()) {
-                        Thread.sleep(500);
-                        runOnUiThread(() -> {
-                            String installationStatus = Utils.getString("installationStatus", "waiting", activity);
-                            if (installationStatus.equals("waiting")) {
-                                mStatus.setText(getString(R.string.installing_bundle));
-                            } else {
-                                mStatus.setText(getString(R.string.result, installationStatus));
-                                if (installationStatus.equals(getString(R.string.installation_status_success))) {
-                                    try {
-                                        mTitle.setText(PackageData.getAppName(Common.getApplicationID(), activity));
-                                        mIcon.setImageDrawable(PackageData.getAppIcon(Common.getApplicationID(), activity));
-                                        mOpen.setVisibility(View.VISIBLE);
-                                    } catch (NullPointerException ignored) {}
-                                }
-                                mProgress.setVisibility(View.GONE);
-                                mCancel.setVisibility(View.VISIBLE);
-                            }
-                        });
-                    }
-                } catch (InterruptedException ignored) {}
+                    mTitle.setText(PackageData.getAppName(Common.getApplicationID(), activity));
+                    mIcon.setImageDrawable(PackageData.getAppIcon(Common.getApplicationID(), activity));
+                    mOpen.setVisibility(View.VISIBLE);
+                } catch (NullPointerException ignored) {}
             }
-        }.start();
+            mProgress.setVisibility(View.GONE);
+            mCancel.setVisibility(View.VISIBLE);
+        }
     }
 
     private CharSequence getName() {
@@ -146,12 +133,6 @@ public class SplitAPKInstallerActivity extends AppCompatActivity {
         }
         if (Utils.getString("installationStatus", "waiting", this).equals(getString(R.string.installation_status_success))) {
             if (!Common.isUpdating()) {
-                PackageData.getRawData().add(new RecycleViewItem(Common.getApplicationID(),
-                        PackageData.getAppName(Common.getApplicationID(), this),
-                        PackageData.getAppIcon(Common.getApplicationID(), this),
-                        new File(PackageData.getSourceDir(Common.getApplicationID(), this)).length(),
-                        Objects.requireNonNull(PackageData.getPackageInfo(Common.getApplicationID(), this)).firstInstallTime,
-                        Objects.requireNonNull(PackageData.getPackageInfo(Common.getApplicationID(), this)).lastUpdateTime));
                 Common.reloadPage(true);
             } else {
                 Common.isUpdating(false);
@@ -160,4 +141,10 @@ public class SplitAPKInstallerActivity extends AppCompatActivity {
         super.onBackPressed();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        Settings.get(this).removeListener(mStatusListener);
+    }
+
 }
\ No newline at end of file
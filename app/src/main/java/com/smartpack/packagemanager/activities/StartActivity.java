@@ -64,17 +64,25 @@ public class StartActivity extends AppCompatActivity {
 
     private static void loadData(Activity activity) {
         new AsyncTasks() {
+            private boolean mSnapshot;
+
             @Override
             public void onPreExecute() {
             }
 
             @Override
             public void doInBackground() {
-                PackageData.setRawData(activity);
+                mSnapshot = PackageData.loadSnapshot(activity);
+                if (!mSnapshot) {
+                    PackageData.setQuickRawData(activity);
+                }
             }
 
             @Override
             public void onPostExecute() {
+                if (mSnapshot) {
+                    PackageData.reconcileRawData(activity);
+                }
                 Intent mainActivity = new Intent(activity, MainActivity.class);
                 activity.startActivity(mainActivity);
                 activity.finish();
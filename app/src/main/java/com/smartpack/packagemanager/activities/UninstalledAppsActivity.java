@@ -33,7 +33,9 @@ import com.smartpack.packagemanager.R;
 import com.smartpack.packagemanager.adapters.RecycleViewUninstalledAppsAdapter;
 import com.smartpack.packagemanager.utils.AsyncTasks;
 import com.smartpack.packagemanager.utils.Common;
+import com.smartpack.packagemanager.utils.InstalledState;
 import com.smartpack.packagemanager.utils.PackageData;
+import com.smartpack.packagemanager.utils.PackageRepository;
 import com.smartpack.packagemanager.utils.Utils;
 
 import java.util.ArrayList;
@@ -67,14 +69,20 @@ public class UninstalledAppsActivity extends AppCompatActivity {
         mRecyclerView = findViewById(R.id.recycler_view);
 
         mRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-        mRecycleViewAdapter = new RecycleViewUninstalledAppsAdapter(getData(this));
+        mRecycleViewAdapter = new RecycleViewUninstalledAppsAdapter(new ArrayList<>());
         mRecyclerView.setAdapter(mRecycleViewAdapter);
 
+        // Filled from the shared inventory, and refreshed as restored packages join it
+        PackageRepository.getStream().observe(this, inventory -> loadUI());
+        if (!PackageRepository.get().isLoaded()) {
+            loadUI();
+        }
+
         mRecycleViewAdapter.setOnItemClickListener((position, v) -> {
             new MaterialAlertDialogBuilder(this)
                     .setIcon(R.mipmap.ic_launcher)
                     .setTitle(R.string.sure_question)
-                    .setMessage(getString(R.string.restore_message, getData(this).get(position)))
+                    .setMessage(getString(R.string.restore_message, mRecycleViewAdapter.getItem(position)))
                     .setNegativeButton(R.string.cancel, (dialog, id) -> {
                     })
                     .setPositiveButton(R.string.restore, (dialog, id) -> restore(position, false,this)).show();
@@ -153,6 +161,7 @@ public class UninstalledAppsActivity extends AppCompatActivity {
 
     private void loadUI() {
         new AsyncTasks() {
+            private List<String> mData;
 
             @Override
             public void onPreExecute() {
@@ -161,12 +170,12 @@ public class UninstalledAppsActivity extends AppCompatActivity {
 
             @Override
             public void doInBackground() {
-                mRecycleViewAdapter = new RecycleViewUninstalledAppsAdapter(getData(UninstalledAppsActivity.this));
+                mData = getData(UninstalledAppsActivity.this);
             }
 
             @Override
             public void onPostExecute() {
-                mRecyclerView.setAdapter(mRecycleViewAdapter);
+                mRecycleViewAdapter.submitList(mData);
                 mProgress.setVisibility(View.GONE);
             }
         }.execute();
@@ -174,9 +183,10 @@ public class UninstalledAppsActivity extends AppCompatActivity {
 
     private List<String> getData(Context context) {
         List<String> mData = new ArrayList<>();
+        boolean loaded = PackageRepository.get().isLoaded();
         List<ApplicationInfo> packages = PackageData.getPackageManager(context).getInstalledApplications(PackageManager.GET_UNINSTALLED_PACKAGES);
         for (ApplicationInfo packageInfo : packages) {
-            if (!Utils.isPackageInstalled(packageInfo.packageName, context)) {
+            if (loaded ? !InstalledState.isInstalled(packageInfo.packageName) : !Utils.isPackageInstalled(packageInfo.packageName, context)) {
                 if (mSearchText == null) {
                     mData.add(packageInfo.packageName);
                 } else if (packageInfo.packageName.contains(mSearchText)) {
@@ -191,6 +201,7 @@ public class UninstalledAppsActivity extends AppCompatActivity {
     }
 
     private void restore(int position, boolean batch, Context context) {
+        String mPackageName = batch ? null : mRecycleViewAdapter.getItem(position);
         new AsyncTasks() {
             String mOutput = null;
 
@@ -206,13 +217,12 @@ public class UninstalledAppsActivity extends AppCompatActivity {
                         Utils.runCommand("cmd package install-existing " + packageName);
                     }
                 } else {
-                    mOutput = Utils.runAndGetError("cmd package install-existing " + getData(context).get(position));
+                    mOutput = Utils.runAndGetError("cmd package install-existing " + mPackageName);
                 }
             }
 
             @Override
             public void onPostExecute() {
-                PackageData.setRawData(context);
                 if (batch) {
                     Common.getRestoreCard().setVisibility(View.GONE);
                     Common.getRestoreList().clear();
@@ -226,8 +236,7 @@ public class UninstalledAppsActivity extends AppCompatActivity {
                             .setMessage(mOutput.endsWith("installed for user: 0") ? getString(R.string.restore_success_message) : mOutput)
                             .setPositiveButton(R.string.cancel, (dialog, id) -> {
                             }).show();
-                    mRecycleViewAdapter.notifyItemRemoved(position);
-                    mProgress.setVisibility(View.GONE);
+                    loadUI();
                 }
             }
         }.execute();
@@ -9,14 +9,16 @@
 package com.smartpack.packagemanager.adapters;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.content.Intent;
-import android.graphics.Color;
 import android.graphics.Typeface;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.appcompat.widget.AppCompatImageButton;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -26,21 +28,73 @@ import com.smartpack.packagemanager.R;
 import com.smartpack.packagemanager.activities.ImageViewActivity;
 import com.smartpack.packagemanager.activities.PackageDetailsActivity;
 import com.smartpack.packagemanager.utils.Common;
+import com.smartpack.packagemanager.utils.IconCache;
+import com.smartpack.packagemanager.utils.InstalledState;
 import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.RecycleViewItem;
+import com.smartpack.packagemanager.utils.TextMatcher;
+import com.smartpack.packagemanager.utils.UserProfiles;
 import com.smartpack.packagemanager.utils.Utils;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /*
  * Created by sunilpaulmathew <sunil.kde@gmail.com> on October 08, 2020
  */
 public class RecycleViewAdapter extends RecyclerView.Adapter<RecycleViewAdapter.ViewHolder> {
 
-    private static List<RecycleViewItem> data;
+    private final AsyncListDiffer<RecycleViewItem> mDiffer = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final Map<String, CharSequence> mHighlights = new HashMap<>();
+    // Search text and mode of the list currently shown, rows are highlighted for them
+    private String mSearchText = null;
+    private boolean mFuzzy = false;
 
-    public RecycleViewAdapter (List<RecycleViewItem> data) {
-        RecycleViewAdapter.data = data;
+    // Rows are the same package if the ids match, and need a rebind if the item itself was replaced
+    private static final DiffUtil.ItemCallback<RecycleViewItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<RecycleViewItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RecycleViewItem oldItem, @NonNull RecycleViewItem newItem) {
+            return oldItem.getPackageName().equals(newItem.getPackageName());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull RecycleViewItem oldItem, @NonNull RecycleViewItem newItem) {
+            return oldItem == newItem;
+        }
+    };
+
+    /*
+     * The diff against the current list is computed in the background and only the rows which changed
+     * are updated. Rows which stay are rebound as well if the list was searched for another text than
+     * the one shown. A list replaced before it got shown never commits, the next one catches up.
+     */
+    public void submitList(List<RecycleViewItem> data, boolean fuzzy) {
+        String searchText = Common.getSearchText();
+        mDiffer.submitList(data, () -> {
+            if (!Objects.equals(searchText, mSearchText) || fuzzy != mFuzzy) {
+                mSearchText = searchText;
+                mFuzzy = fuzzy;
+                mHighlights.clear();
+                notifyItemRangeChanged(0, getItemCount());
+            }
+        });
+    }
+
+    // Rebinds the row of a package whose installed state changed
+    public void notifyPackageChanged(String packageName) {
+        List<RecycleViewItem> mData = mDiffer.getCurrentList();
+        for (int i = 0; i < mData.size(); i++) {
+            if (mData.get(i).getPackageName().equals(packageName)) {
+                notifyItemChanged(i);
+                return;
+            }
+        }
+    }
+
+    private RecycleViewItem getItem(int position) {
+        return mDiffer.getCurrentList().get(position);
     }
 
     @NonNull
@@ -53,55 +107,92 @@ public class RecycleViewAdapter extends RecyclerView.Adapter<RecycleViewAdapter.
     @SuppressLint("StringFormatInvalid")
     @Override
     public void onBindViewHolder(@NonNull RecycleViewAdapter.ViewHolder holder, int position) {
-        if (!Utils.isPackageInstalled(data.get(position).getPackageName(), holder.appID.getContext())) {
-            return;
-        }
-        holder.appIcon.setImageDrawable(data.get(position).getIcon());
-        if (Common.getSearchText() != null && Common.isTextMatched(data.get(position).getPackageName())) {
+        // Positions shift as updates are applied without a rebind, the listeners hold on to the item
+        RecycleViewItem item = getItem(position);
+        // Answered from the inventory, binding never calls into PackageManager. Rows of another user
+        // are checked against that user's package list.
+        int userId = UserProfiles.getShownUserId(holder.itemView.getContext());
+        boolean installed = UserProfiles.isInstalled(userId, item.getPackageName());
+        holder.itemView.setAlpha(installed ? 1f : 0.4f);
+        holder.checkBox.setEnabled(installed);
+        IconCache.load(holder.appIcon, item);
+        if (isMatched(item.getPackageName())) {
             holder.appID.setTypeface(null, Typeface.BOLD);
-            holder.appID.setText(Utils.fromHtml(data.get(position).getPackageName().replace(Common.getSearchText(),"<b><i><font color=\"" +
-                    Color.RED + "\">" + Common.getSearchText() + "</font></i></b>")));
+            holder.appID.setText(getHighlighted(item.getPackageName(), holder.appID.getContext()));
         } else {
-            holder.appID.setText(data.get(position).getPackageName());
+            holder.appID.setTypeface(null, Typeface.NORMAL);
+            holder.appID.setText(item.getPackageName());
         }
-        if (Common.getSearchText() != null && Common.isTextMatched(data.get(position).getAppName())) {
+        if (isMatched(item.getAppName())) {
             holder.appName.setTypeface(null, Typeface.BOLD);
+            holder.appName.setText(getHighlighted(item.getAppName(), holder.appName.getContext()));
+        } else {
+            holder.appName.setTypeface(null, Typeface.NORMAL);
+            holder.appName.setText(item.getAppName());
         }
-        holder.appName.setText(data.get(position).getAppName());
         holder.appIcon.setOnClickListener(v -> {
-            if (!Utils.isPackageInstalled(data.get(position).getPackageName(), v.getContext())) {
+            if (!UserProfiles.isInstalled(userId, item.getPackageName())) {
                 Utils.snackbar(v, v.getContext().getString(R.string.package_removed));
                 return;
             }
-            Common.setApplicationName(data.get(position).getAppName());
-            Common.setApplicationIcon(data.get(position).getIcon());
+            Common.setApplicationID(item.getPackageName());
+            Common.setApplicationName(item.getAppName());
+            Common.setApplicationIcon(holder.appIcon.getDrawable());
             Intent imageView = new Intent(holder.appIcon.getContext(), ImageViewActivity.class);
             holder.appIcon.getContext().startActivity(imageView);
         });
-        holder.checkBox.setChecked(Common.getBatchList().contains(data.get(position).getPackageName()));
+        holder.checkBox.setChecked(Common.getBatchList().isSelected(item.getPackageName()));
         holder.checkBox.setOnClickListener(v -> {
-            if (!Utils.isPackageInstalled(data.get(position).getPackageName(), v.getContext())) {
+            if (!installed) {
                 Utils.snackbar(v, v.getContext().getString(R.string.package_removed));
                 holder.checkBox.setChecked(false);
                 return;
             }
-            if (Common.getBatchList().contains(data.get(position).getPackageName())) {
-                Common.getBatchList().remove(data.get(position).getPackageName());
-                Utils.snackbar(v, v.getContext().getString(R.string.batch_list_removed, data.get(position).getAppName()));
+            if (Common.getBatchList().toggle(item.getPackageName())) {
+                Utils.snackbar(v, v.getContext().getString(R.string.batch_list_added, item.getAppName()));
             } else {
-                Common.getBatchList().add(data.get(position).getPackageName());
-                Utils.snackbar(v, v.getContext().getString(R.string.batch_list_added, data.get(position).getAppName()));
+                Utils.snackbar(v, v.getContext().getString(R.string.batch_list_removed, item.getAppName()));
             }
             Common.getBatchOptionsCard().setVisibility(Common.getBatchList().size() > 0 ? View.VISIBLE : View.GONE);
         });
+        // Long press selects everything from the package toggled last up to this one
+        holder.checkBox.setOnLongClickListener(v -> {
+            int mPosition = holder.getAdapterPosition();
+            if (mPosition == RecyclerView.NO_POSITION) return false;
+            int from = Common.getBatchList().selectRange(mDiffer.getCurrentList(), mPosition);
+            if (from < 0) return false;
+            notifyItemRangeChanged(from, Math.abs(mPosition - from) + 1);
+            Common.getBatchOptionsCard().setVisibility(View.VISIBLE);
+            return true;
+        });
+    }
+
+    private boolean isMatched(String text) {
+        return mSearchText != null && (TextMatcher.matches(text, mSearchText)
+                || mFuzzy && TextMatcher.fuzzyMatches(text, mSearchText));
+    }
+
+    // Highlighted texts are built once per search
+    private CharSequence getHighlighted(String text, Context context) {
+        CharSequence highlighted = mHighlights.get(text);
+        if (highlighted == null) {
+            highlighted = TextMatcher.highlight(text, mSearchText, mFuzzy, Utils.getThemeAccentColor(context));
+            mHighlights.put(text, highlighted);
+        }
+        return highlighted;
+    }
+
+    public List<RecycleViewItem> getItems(int from, int to) {
+        List<RecycleViewItem> mData = mDiffer.getCurrentList();
+        return mData.subList(Math.min(from, mData.size()), Math.min(to, mData.size()));
     }
 
     @Override
     public int getItemCount() {
-        return data.size();
+        return mDiffer.getCurrentList().size();
     }
 
-    public static class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
         private final AppCompatImageButton appIcon;
         private final MaterialCheckBox checkBox;
         private final MaterialTextView appName;
@@ -118,13 +209,19 @@ public class RecycleViewAdapter extends RecyclerView.Adapter<RecycleViewAdapter.
 
         @Override
         public void onClick(View view) {
-            if (!Utils.isPackageInstalled(data.get(getAdapterPosition()).getPackageName(), view.getContext())) {
+            if (getAdapterPosition() == RecyclerView.NO_POSITION) return;
+            // The details screen looks packages up (and acts on them) for this user only
+            if (UserProfiles.getSelectedUserId(view.getContext()) >= 0) {
+                Utils.snackbar(view, view.getContext().getString(R.string.package_other_user));
+                return;
+            }
+            if (!InstalledState.isInstalled(getItem(getAdapterPosition()).getPackageName())) {
                 Utils.snackbar(view, view.getContext().getString(R.string.package_removed));
                 return;
             }
-            Common.setApplicationID(data.get(getAdapterPosition()).getPackageName());
-            Common.setApplicationName(data.get(getAdapterPosition()).getAppName());
-            Common.setApplicationIcon(data.get(getAdapterPosition()).getIcon());
+            Common.setApplicationID(getItem(getAdapterPosition()).getPackageName());
+            Common.setApplicationName(getItem(getAdapterPosition()).getAppName());
+            Common.setApplicationIcon(appIcon.getDrawable());
             Common.setSourceDir(PackageData.getSourceDir(Common.getApplicationID(), view.getContext()));
             Common.setDataDir(PackageData.getDataDir(Common.getApplicationID(), view.getContext()));
             Common.setNativeLibsDir(PackageData.getNativeLibDir(Common.getApplicationID(), view.getContext()));
@@ -18,6 +18,8 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.appcompat.widget.AppCompatImageButton;
 import androidx.appcompat.widget.PopupMenu;
 import androidx.core.content.FileProvider;
@@ -31,6 +33,7 @@ import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.Utils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /*
@@ -39,12 +42,33 @@ import java.util.List;
 
 public class RecycleViewExportedAppsAdapter extends RecyclerView.Adapter<RecycleViewExportedAppsAdapter.ViewHolder> {
 
-    private static List<String> data;
+    private final AsyncListDiffer<String> mDiffer = new AsyncListDiffer<>(this, DIFF_CALLBACK);
 
     private static ClickListener mClickListener;
 
+    private static final DiffUtil.ItemCallback<String> DIFF_CALLBACK = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     public RecycleViewExportedAppsAdapter(List<String> data) {
-        RecycleViewExportedAppsAdapter.data = data;
+        mDiffer.submitList(data);
+    }
+
+    // Applies the difference to the current list, computed in the background
+    public void submitList(List<String> data) {
+        mDiffer.submitList(data);
+    }
+
+    public String getItem(int position) {
+        return mDiffer.getCurrentList().get(position);
     }
 
     @NonNull
@@ -54,27 +78,28 @@ public class RecycleViewExportedAppsAdapter extends RecyclerView.Adapter<Recycle
         return new RecycleViewExportedAppsAdapter.ViewHolder(rowItem);
     }
 
-    @SuppressLint({"UseCompatLoadingForDrawables", "StringFormatInvalid", "NotifyDataSetChanged"})
+    @SuppressLint({"UseCompatLoadingForDrawables", "StringFormatInvalid"})
     @Override
     public void onBindViewHolder(@NonNull RecycleViewExportedAppsAdapter.ViewHolder holder, int position) {
-        if (data.get(position).endsWith(".apk")) {
-            if (Utils.isPackageInstalled(new File(data.get(position)).getName().replace(".apk", ""), holder.mIcon.getContext())) {
-                holder.mIcon.setImageDrawable(PackageData.getAppIcon(new File(data.get(position)).getName().replace(".apk", ""), holder.mIcon.getContext()));
+        String mPath = getItem(position);
+        if (mPath.endsWith(".apk")) {
+            if (Utils.isPackageInstalled(new File(mPath).getName().replace(".apk", ""), holder.mIcon.getContext())) {
+                holder.mIcon.setImageDrawable(PackageData.getAppIcon(new File(mPath).getName().replace(".apk", ""), holder.mIcon.getContext()));
             } else {
-                holder.mIcon.setImageDrawable(PackageData.getAPKIcon(data.get(position), holder.mIcon.getContext()));
+                holder.mIcon.setImageDrawable(PackageData.getAPKIcon(mPath, holder.mIcon.getContext()));
             }
-            holder.mTitle.setText(new File(data.get(position)).getName().replace(".apk", ""));
+            holder.mTitle.setText(new File(mPath).getName().replace(".apk", ""));
         } else {
-            if (Utils.isPackageInstalled(new File(data.get(position)).getName().replace(".apkm", ""), holder.mIcon.getContext())) {
-                holder.mIcon.setImageDrawable(PackageData.getAppIcon(new File(data.get(position)).getName().replace(".apkm", ""), holder.mIcon.getContext()));
+            if (Utils.isPackageInstalled(new File(mPath).getName().replace(".apkm", ""), holder.mIcon.getContext())) {
+                holder.mIcon.setImageDrawable(PackageData.getAppIcon(new File(mPath).getName().replace(".apkm", ""), holder.mIcon.getContext()));
             } else {
                 holder.mIcon.setImageDrawable(holder.mIcon.getContext().getResources().getDrawable(R.drawable.ic_bundle));
                 holder.mIcon.setColorFilter(Utils.getThemeAccentColor(holder.mIcon.getContext()));
             }
-            holder.mTitle.setText(new File(data.get(position)).getName().replace(".apkm", ""));
+            holder.mTitle.setText(new File(mPath).getName().replace(".apkm", ""));
         }
         holder.mTitle.setTextColor(Utils.isDarkTheme(holder.mTitle.getContext()) ? Color.WHITE : Color.BLACK);
-        holder.mSize.setText(PackageData.getAPKSize(data.get(position)));
+        holder.mSize.setText(PackageData.getAPKSize(mPath));
         holder.mAction.setImageDrawable(holder.mAction.getContext().getResources().getDrawable(R.drawable.ic_settings));
         holder.mAction.setOnClickListener(v -> {
             PopupMenu popupMenu = new PopupMenu(v.getContext(), v);
@@ -85,10 +110,10 @@ public class RecycleViewExportedAppsAdapter extends RecyclerView.Adapter<Recycle
                 switch (item.getItemId()) {
                     case 0:
                         Uri uriFile = FileProvider.getUriForFile(v.getContext(), BuildConfig.APPLICATION_ID + ".provider",
-                                new File(data.get(position)));
+                                new File(mPath));
                         Intent shareScript = new Intent(Intent.ACTION_SEND);
-                        shareScript.setType(data.get(position).endsWith(".apkm") ? "application/zip" : "application/java-archive");
-                        shareScript.putExtra(Intent.EXTRA_SUBJECT, v.getContext().getString(R.string.shared_by, new File(data.get(position)).getName()));
+                        shareScript.setType(mPath.endsWith(".apkm") ? "application/zip" : "application/java-archive");
+                        shareScript.putExtra(Intent.EXTRA_SUBJECT, v.getContext().getString(R.string.shared_by, new File(mPath).getName()));
                         shareScript.putExtra(Intent.EXTRA_TEXT, v.getContext().getString(R.string.share_message, BuildConfig.VERSION_NAME));
                         shareScript.putExtra(Intent.EXTRA_STREAM, uriFile);
                         shareScript.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
@@ -96,13 +121,14 @@ public class RecycleViewExportedAppsAdapter extends RecyclerView.Adapter<Recycle
                         break;
                     case 1:
                         new MaterialAlertDialogBuilder(v.getContext())
-                                .setMessage(v.getContext().getString(R.string.delete_question, new File(data.get(position)).getName()))
+                                .setMessage(v.getContext().getString(R.string.delete_question, new File(mPath).getName()))
                                 .setNegativeButton(v.getContext().getString(R.string.cancel), (dialog, id) -> {
                                 })
                                 .setPositiveButton(v.getContext().getString(R.string.delete), (dialog, id) -> {
-                                    Utils.delete(data.get(position));
-                                    data.remove(position);
-                                    notifyDataSetChanged();
+                                    Utils.delete(mPath);
+                                    List<String> mData = new ArrayList<>(mDiffer.getCurrentList());
+                                    mData.remove(mPath);
+                                    mDiffer.submitList(mData);
                                 }).show();
                         break;
                 }
@@ -114,7 +140,7 @@ public class RecycleViewExportedAppsAdapter extends RecyclerView.Adapter<Recycle
 
     @Override
     public int getItemCount() {
-        return data.size();
+        return mDiffer.getCurrentList().size();
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
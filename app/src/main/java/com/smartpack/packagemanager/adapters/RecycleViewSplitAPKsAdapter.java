@@ -24,9 +24,9 @@ import com.smartpack.packagemanager.R;
 import com.smartpack.packagemanager.utils.Common;
 import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.PackageExplorer;
+import com.smartpack.packagemanager.utils.SplitInventory;
 import com.smartpack.packagemanager.utils.Utils;
 
-import java.io.File;
 import java.util.List;
 
 /*
@@ -35,9 +35,9 @@ import java.util.List;
 
 public class RecycleViewSplitAPKsAdapter extends RecyclerView.Adapter<RecycleViewSplitAPKsAdapter.ViewHolder> {
 
-    private static List<String> data;
+    private static List<SplitInventory.Split> data;
 
-    public RecycleViewSplitAPKsAdapter(List<String> data) {
+    public RecycleViewSplitAPKsAdapter(List<SplitInventory.Split> data) {
         RecycleViewSplitAPKsAdapter.data = data;
     }
 
@@ -51,23 +51,19 @@ public class RecycleViewSplitAPKsAdapter extends RecyclerView.Adapter<RecycleVie
     @SuppressLint("StringFormatInvalid")
     @Override
     public void onBindViewHolder(@NonNull RecycleViewSplitAPKsAdapter.ViewHolder holder, int position) {
-        holder.mName.setText(data.get(position));
-        holder.mSize.setText(PackageData.getAPKSize(PackageData.getParentDir(Common.getApplicationID(), holder.mIcon
-                .getContext()) + "/" + data.get(position)));
-        if (PackageData.getAPKIcon(PackageData.getParentDir(Common.getApplicationID(), holder.mIcon
-                .getContext()) + "/" + data.get(position), holder.mIcon.getContext()) != null) {
-            holder.mIcon.setImageDrawable(PackageData.getAPKIcon(PackageData.getParentDir(Common.getApplicationID(), holder.mIcon
-                    .getContext()) + "/" + data.get(position), holder.mIcon.getContext()));
+        holder.mName.setText(data.get(position).getName());
+        holder.mSize.setText(PackageData.formatSize(data.get(position).getSize()));
+        if (PackageData.getAPKIcon(data.get(position).getPath(), holder.mIcon.getContext()) != null) {
+            holder.mIcon.setImageDrawable(PackageData.getAPKIcon(data.get(position).getPath(), holder.mIcon.getContext()));
         } else {
             holder.mIcon.setColorFilter(Utils.getThemeAccentColor(holder.mIcon.getContext()));
         }
         holder.mExport.setOnClickListener(v -> new MaterialAlertDialogBuilder(v.getContext())
-                .setMessage(v.getContext().getString(R.string.export_storage_message, new File(data.get(position)).getName()))
+                .setMessage(v.getContext().getString(R.string.export_storage_message, data.get(position).getName()))
                 .setNegativeButton(v.getContext().getString(R.string.cancel), (dialogInterface, i) -> {
                 })
                 .setPositiveButton(v.getContext().getString(R.string.export), (dialogInterface, i) -> {
-                    PackageExplorer.copyToStorage(PackageData.getParentDir(Common.getApplicationID(), holder.mIcon
-                            .getContext()) + "/" + data.get(position), PackageData.getPackageDir(v.getContext()) + "/" +
+                    PackageExplorer.copyToStorage(data.get(position).getPath(), PackageData.getPackageDir(v.getContext()) + "/" +
                             Common.getApplicationID(), (Activity) v.getContext());
                 }).show());
     }
@@ -13,6 +13,8 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.checkbox.MaterialCheckBox;
@@ -27,12 +29,33 @@ import java.util.List;
  */
 public class RecycleViewUninstalledAppsAdapter extends RecyclerView.Adapter<RecycleViewUninstalledAppsAdapter.ViewHolder> {
 
-    private static List<String> data;
+    private final AsyncListDiffer<String> mDiffer = new AsyncListDiffer<>(this, DIFF_CALLBACK);
 
     private static ClickListener mClickListener;
 
+    private static final DiffUtil.ItemCallback<String> DIFF_CALLBACK = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     public RecycleViewUninstalledAppsAdapter(List<String> data) {
-        RecycleViewUninstalledAppsAdapter.data = data;
+        mDiffer.submitList(data);
+    }
+
+    // Applies the difference to the current list, computed in the background
+    public void submitList(List<String> data) {
+        mDiffer.submitList(data);
+    }
+
+    public String getItem(int position) {
+        return mDiffer.getCurrentList().get(position);
     }
 
     @NonNull
@@ -44,13 +67,14 @@ public class RecycleViewUninstalledAppsAdapter extends RecyclerView.Adapter<Recy
 
     @Override
     public void onBindViewHolder(@NonNull RecycleViewUninstalledAppsAdapter.ViewHolder holder, int position) {
-        holder.mTitle.setText(data.get(position));
-        holder.mCheckBox.setChecked(Common.getRestoreList().contains(data.get(position)));
+        String mPackageName = getItem(position);
+        holder.mTitle.setText(mPackageName);
+        holder.mCheckBox.setChecked(Common.getRestoreList().contains(mPackageName));
         holder.mCheckBox.setOnClickListener(v -> {
-            if (Common.getRestoreList().contains(data.get(position))) {
-                Common.getRestoreList().remove(data.get(position));
+            if (Common.getRestoreList().contains(mPackageName)) {
+                Common.getRestoreList().remove(mPackageName);
             } else {
-                Common.getRestoreList().add(data.get(position));
+                Common.getRestoreList().add(mPackageName);
             }
             Common.getRestoreCard().setVisibility(Common.getRestoreList().size() > 0 ? View.VISIBLE : View.GONE);
         });
@@ -58,7 +82,7 @@ public class RecycleViewUninstalledAppsAdapter extends RecyclerView.Adapter<Recy
 
     @Override
     public int getItemCount() {
-        return data.size();
+        return mDiffer.getCurrentList().size();
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
@@ -35,8 +35,7 @@ import com.smartpack.packagemanager.utils.Common;
 import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.PackageDetails;
 import com.smartpack.packagemanager.utils.PackageExplorer;
-import com.smartpack.packagemanager.utils.RecycleViewItem;
-import com.smartpack.packagemanager.utils.SplitAPKInstaller;
+import com.smartpack.packagemanager.utils.SplitInventory;
 import com.smartpack.packagemanager.utils.Utils;
 
 import java.io.File;
@@ -90,13 +89,13 @@ public class PackageInfoFragment extends Fragment {
         mDisableTitle.setText(PackageData.isEnabled(Common.getApplicationID(), requireActivity()) ? R.string.disable : R.string.enable);
         mDataDir.setText(Common.getDataDir());
         mNatLib.setText(Common.getNativeLibsDir());
-        if (new File(PackageData.getSourceDir(Common.getApplicationID(), requireActivity())).getName().equals("base.apk") && SplitAPKInstaller
-                .splitApks(PackageData.getParentDir(Common.getApplicationID(), requireActivity())).size() > 1) {
+        SplitInventory mSplits = SplitInventory.of(Common.getApplicationID(), requireActivity());
+        if (mSplits.isBundle()) {
             mAPKPathTitle.setText(getString(R.string.bundle_path));
-            mAPKSize.setText(getString(R.string.size_bundle, PackageData.getBundleSize(PackageData.getParentDir(Common.getApplicationID(), requireActivity()))));
+            mAPKSize.setText(getString(R.string.size_bundle, PackageData.formatSize(mSplits.getTotalSize())));
         } else {
             mAPKPathTitle.setText(getString(R.string.apk_path));
-            mAPKSize.setText(getString(R.string.size_apk, PackageData.getAPKSize(Common.getSourceDir())));
+            mAPKSize.setText(getString(R.string.size_apk, PackageData.formatSize(mSplits.getTotalSize())));
         }
         mAPKPath.setText(PackageData.getParentDir(Common.getApplicationID(), requireActivity()));
         mOpenApp.setVisibility(PackageData.isEnabled(Common.getApplicationID(), requireActivity()) ? View.VISIBLE : View.GONE);
@@ -224,11 +223,6 @@ public class PackageInfoFragment extends Fragment {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (requestCode == 0 && data != null && resultCode == Activity.RESULT_OK) {
-            for (RecycleViewItem item : PackageData.getRawData()) {
-                if (item.getPackageName().equals(Common.getApplicationID())) {
-                    PackageData.getRawData().remove(item);
-                }
-            }
             Common.reloadPage(true);
             requireActivity().finish();
         }
@@ -26,6 +26,7 @@ import android.view.ViewGroup;
 import android.widget.ProgressBar;
 
 import androidx.activity.OnBackPressedCallback;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.AppCompatEditText;
 import androidx.appcompat.widget.AppCompatImageButton;
@@ -47,13 +48,18 @@ import com.smartpack.packagemanager.activities.InstallerInstructionsActivity;
 import com.smartpack.packagemanager.activities.SettingsActivity;
 import com.smartpack.packagemanager.activities.UninstalledAppsActivity;
 import com.smartpack.packagemanager.adapters.RecycleViewAdapter;
-import com.smartpack.packagemanager.utils.AsyncTasks;
 import com.smartpack.packagemanager.utils.Common;
 import com.smartpack.packagemanager.utils.FilePicker;
+import com.smartpack.packagemanager.utils.FootprintCache;
+import com.smartpack.packagemanager.utils.InstalledState;
 import com.smartpack.packagemanager.utils.PackageData;
 import com.smartpack.packagemanager.utils.PackageDetails;
+import com.smartpack.packagemanager.utils.PackageRepository;
+import com.smartpack.packagemanager.utils.PackageResolver;
 import com.smartpack.packagemanager.utils.PackageTasks;
-import com.smartpack.packagemanager.utils.RecycleViewItem;
+import com.smartpack.packagemanager.utils.QueryScheduler;
+import com.smartpack.packagemanager.utils.Settings;
+import com.smartpack.packagemanager.utils.UserProfiles;
 import com.smartpack.packagemanager.utils.Utils;
 
 import org.json.JSONArray;
@@ -61,7 +67,8 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.File;
-import java.util.ConcurrentModificationException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /*
@@ -78,6 +85,14 @@ public class PackageTasksFragment extends Fragment {
     private ProgressBar mProgress;
     private RecyclerView mRecyclerView;
     private RecycleViewAdapter mRecycleViewAdapter;
+    private final QueryScheduler mQueryScheduler = new QueryScheduler();
+    // Typing pauses at least this long (ms) before the list is searched
+    private static final long SEARCH_DELAY = 150;
+    private final InstalledState.OnChangeListener mInstalledListener = packageName -> {
+        if (mRecycleViewAdapter != null) {
+            mRecycleViewAdapter.notifyPackageChanged(packageName);
+        }
+    };
 
     @Nullable
     @Override
@@ -97,9 +112,22 @@ public class PackageTasksFragment extends Fragment {
         mSearchWord.setHintTextColor(Color.GRAY);
 
         mRecyclerView.setLayoutManager(new LinearLayoutManager(getActivity()));
+        mRecycleViewAdapter = new RecycleViewAdapter();
+        mRecyclerView.setAdapter(mRecycleViewAdapter);
         mRecyclerView.addItemDecoration(new DividerItemDecoration(requireActivity(), DividerItemDecoration.VERTICAL));
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                updateVisibleRows();
+            }
+        });
 
-        loadUI(requireActivity());
+        // Every inventory published while the list is visible (or while it was not) reloads it once
+        PackageRepository.getStream().observe(getViewLifecycleOwner(), inventory -> loadUI(requireActivity()));
+        // Other users and work profiles, listed again whenever their packages are reloaded
+        UserProfiles.getStream().observe(getViewLifecycleOwner(), users -> updateUI(requireActivity(), 0));
+        UserProfiles.load(requireActivity());
+        InstalledState.addListener(mInstalledListener);
 
         mTabLayout.addTab(mTabLayout.newTab().setText(getString(R.string.show_apps_all)));
         mTabLayout.addTab(mTabLayout.newTab().setText(getString(R.string.show_apps_system)));
@@ -115,19 +143,19 @@ public class PackageTasksFragment extends Fragment {
                     case 0:
                         if (!mStatus.equals("all")) {
                             Utils.saveString("appTypes", "all", requireActivity());
-                            loadUI(requireActivity());
+                            updateUI(requireActivity(), 0);
                         }
                         break;
                     case 1:
                         if (!mStatus.equals("system")) {
                             Utils.saveString("appTypes", "system", requireActivity());
-                            loadUI(requireActivity());
+                            updateUI(requireActivity(), 0);
                         }
                         break;
                     case 2:
                         if (!mStatus.equals("user")) {
                             Utils.saveString("appTypes", "user", requireActivity());
-                            loadUI(requireActivity());
+                            updateUI(requireActivity(), 0);
                         }
                         break;
                 }
@@ -172,7 +200,7 @@ public class PackageTasksFragment extends Fragment {
             @Override
             public void afterTextChanged(Editable s) {
                 Common.setSearchText(s.toString().toLowerCase());
-                loadUI(requireActivity());
+                updateUI(requireActivity(), SEARCH_DELAY);
             }
         });
 
@@ -235,13 +263,41 @@ public class PackageTasksFragment extends Fragment {
         }
     }
 
+    private int[] getVisibleRange() {
+        LinearLayoutManager mLayoutManager = (LinearLayoutManager) mRecyclerView.getLayoutManager();
+        if (mLayoutManager == null || mRecycleViewAdapter == null) {
+            return null;
+        }
+        int first = mLayoutManager.findFirstVisibleItemPosition();
+        int last = mLayoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last < first) {
+            return null;
+        }
+        return new int[] {first, last};
+    }
+
+    private void updateVisibleRows() {
+        int[] range = getVisibleRange();
+        PackageResolver.setVisible(range != null ? mRecycleViewAdapter.getItems(range[0], range[1] + 1) : new ArrayList<>());
+    }
+
     private void selectAll(boolean b) {
-        Utils.saveBoolean("select_all", b, requireActivity());
-        loadUI(requireActivity());
+        if (b) {
+            Utils.saveBoolean("select_all", true, requireActivity());
+            loadUI(requireActivity());
+        } else {
+            clearSelection();
+        }
+    }
+
+    private void clearSelection() {
+        Common.getBatchList().clear();
+        mBatchOptions.setVisibility(View.GONE);
+        mRecycleViewAdapter.notifyItemRangeChanged(0, mRecycleViewAdapter.getItemCount());
     }
 
     private void uninstallUserApp() {
-        Intent remove = new Intent(Intent.ACTION_DELETE, Uri.parse("package:" + Common.getBatchList().get(0)));
+        Intent remove = new Intent(Intent.ACTION_DELETE, Uri.parse("package:" + Common.getBatchList().getFirst()));
         remove.putExtra(Intent.EXTRA_RETURN_RESULT, true);
         startActivityForResult(remove, 0);
         Common.reloadPage(true);
@@ -271,8 +327,18 @@ public class PackageTasksFragment extends Fragment {
             sort.add(0, 5, Menu.NONE, getString(R.string.size)).setCheckable(true)
                     .setChecked(Utils.getBoolean("sort_size", false, activity));
         }
+        // Only the packages of this user are measured
+        if (FootprintCache.isAvailable(activity) && UserProfiles.getSelectedUserId(activity) < 0) {
+            sort.add(0, 9, Menu.NONE, getString(R.string.footprint)).setCheckable(true)
+                    .setChecked(Utils.getBoolean("sort_footprint", false, activity));
+        }
         menu.add(Menu.NONE, 6, Menu.NONE, getString(R.string.reverse_order)).setCheckable(true)
                 .setChecked(Utils.getBoolean("reverse_order", false, activity));
+        menu.add(Menu.NONE, 7, Menu.NONE, getString(R.string.fuzzy_search)).setCheckable(true)
+                .setChecked(Utils.getBoolean("fuzzy_search", false, activity));
+        if (UserProfiles.isMultiUser()) {
+            menu.add(Menu.NONE, 8, Menu.NONE, getString(R.string.users));
+        }
         sort.setGroupCheckable(0, true, true);
         popupMenu.setOnMenuItemClickListener(item -> {
             switch (item.getItemId()) {
@@ -285,7 +351,8 @@ public class PackageTasksFragment extends Fragment {
                         Utils.saveBoolean("sort_installed", false, activity);
                         Utils.saveBoolean("sort_updated", false, activity);
                         Utils.saveBoolean("sort_size", false, activity);
-                        loadUI(activity);
+                        Utils.saveBoolean("sort_footprint", false, activity);
+                        updateUI(activity, 0);
                     }
                     break;
                 case 2:
@@ -295,7 +362,8 @@ public class PackageTasksFragment extends Fragment {
                         Utils.saveBoolean("sort_installed", false, activity);
                         Utils.saveBoolean("sort_updated", false, activity);
                         Utils.saveBoolean("sort_size", false, activity);
-                        loadUI(activity);
+                        Utils.saveBoolean("sort_footprint", false, activity);
+                        updateUI(activity, 0);
                     }
                     break;
                 case 3:
@@ -305,7 +373,8 @@ public class PackageTasksFragment extends Fragment {
                         Utils.saveBoolean("sort_installed", true, activity);
                         Utils.saveBoolean("sort_updated", false, activity);
                         Utils.saveBoolean("sort_size", false, activity);
-                        loadUI(activity);
+                        Utils.saveBoolean("sort_footprint", false, activity);
+                        updateUI(activity, 0);
                     }
                     break;
                 case 4:
@@ -315,7 +384,8 @@ public class PackageTasksFragment extends Fragment {
                         Utils.saveBoolean("sort_installed", false, activity);
                         Utils.saveBoolean("sort_updated", true, activity);
                         Utils.saveBoolean("sort_size", false, activity);
-                        loadUI(activity);
+                        Utils.saveBoolean("sort_footprint", false, activity);
+                        updateUI(activity, 0);
                     }
                     break;
                 case 5:
@@ -325,12 +395,31 @@ public class PackageTasksFragment extends Fragment {
                         Utils.saveBoolean("sort_installed", false, activity);
                         Utils.saveBoolean("sort_updated", false, activity);
                         Utils.saveBoolean("sort_size", true, activity);
-                        loadUI(activity);
+                        Utils.saveBoolean("sort_footprint", false, activity);
+                        updateUI(activity, 0);
+                    }
+                    break;
+                case 9:
+                    if (!Utils.getBoolean("sort_footprint", false, activity)) {
+                        Utils.saveBoolean("sort_name", false, activity);
+                        Utils.saveBoolean("sort_id", false, activity);
+                        Utils.saveBoolean("sort_installed", false, activity);
+                        Utils.saveBoolean("sort_updated", false, activity);
+                        Utils.saveBoolean("sort_size", false, activity);
+                        Utils.saveBoolean("sort_footprint", true, activity);
+                        updateUI(activity, 0);
                     }
                     break;
                 case 6:
                     Utils.saveBoolean("reverse_order", !Utils.getBoolean("reverse_order", false, activity), activity);
-                    loadUI(activity);
+                    updateUI(activity, 0);
+                    break;
+                case 7:
+                    Utils.saveBoolean("fuzzy_search", !Utils.getBoolean("fuzzy_search", false, activity), activity);
+                    updateUI(activity, 0);
+                    break;
+                case 8:
+                    selectUser(activity);
                     break;
             }
             return false;
@@ -338,6 +427,28 @@ public class PackageTasksFragment extends Fragment {
         popupMenu.show();
     }
 
+    private void selectUser(Activity activity) {
+        List<UserProfiles.User> mUsers = UserProfiles.getUsers();
+        String[] mNames = new String[mUsers.size()];
+        int checked = 0, userId = UserProfiles.getShownUserId(activity);
+        for (int i = 0; i < mUsers.size(); i++) {
+            mNames[i] = mUsers.get(i).getName() + " (" + mUsers.get(i).getId() + ")";
+            if (mUsers.get(i).getId() == userId) {
+                checked = i;
+            }
+        }
+        new MaterialAlertDialogBuilder(activity)
+                .setTitle(R.string.users)
+                .setSingleChoiceItems(mNames, checked, (dialog, i) -> {
+                    int id = mUsers.get(i).getId();
+                    Utils.saveInt("user_id", id == UserProfiles.getOwnUserId() ? -1 : id, activity);
+                    // The selection belongs to the list of the previous user
+                    clearSelection();
+                    dialog.dismiss();
+                    loadUI(activity);
+                }).show();
+    }
+
     private void settingsMenu(Activity activity) {
         PopupMenu popupMenu = new PopupMenu(activity, mSettings);
         Menu menu = popupMenu.getMenu();
@@ -390,11 +501,18 @@ public class PackageTasksFragment extends Fragment {
         }
         menu.add(Menu.NONE, 3, Menu.NONE, getString(R.string.export));
         menu.add(Menu.NONE, 4, Menu.NONE, getString(R.string.export_details));
+        // The list on screen is the current query result, nothing needs to be filtered again
+        boolean allSelected = Common.getBatchList().isAllSelected(mRecycleViewAdapter.getItems(0, mRecycleViewAdapter.getItemCount()));
         menu.add(Menu.NONE, 5, Menu.NONE, getString(R.string.select_all)).setCheckable(true)
-                .setChecked(PackageData.getData(activity).size() == Common.getBatchList().size());
-        if (PackageData.getData(activity).size() != Common.getBatchList().size()) {
+                .setChecked(allSelected);
+        if (!allSelected) {
             menu.add(Menu.NONE, 6, Menu.NONE, getString(R.string.batch_list_clear));
         }
+        menu.add(Menu.NONE, 7, Menu.NONE, getString(R.string.invert_selection));
+        if (Utils.rootAccess() && UserProfiles.isMultiUser()) {
+            menu.add(Menu.NONE, 8, Menu.NONE, getString(R.string.batch_all_users)).setCheckable(true)
+                    .setChecked(Utils.getBoolean("batch_all_users", false, activity));
+        }
         popupMenu.setOnMenuItemClickListener(item -> {
             switch (item.getItemId()) {
                 case 0:
@@ -456,7 +574,7 @@ public class PackageTasksFragment extends Fragment {
                     try {
                         JSONObject obj = new JSONObject();
                         JSONArray apps = new JSONArray();
-                        for (String packageID : Common.getBatchList()) {
+                        for (String packageID : Common.getBatchList().getSnapshot()) {
                             if (packageID.contains(".") && Utils.isPackageInstalled(packageID, activity)) {
                                 apps.put(PackageDetails.getPackageDetails(packageID, activity));
                             }
@@ -468,7 +586,7 @@ public class PackageTasksFragment extends Fragment {
                     }
                     break;
                 case 5:
-                    if (PackageData.getData(activity).size() == Common.getBatchList().size()) {
+                    if (allSelected) {
                         selectAll(false);
                     } else {
                         if (Utils.getBoolean("select_all_firstAttempt", true, requireActivity())) {
@@ -489,8 +607,15 @@ public class PackageTasksFragment extends Fragment {
                     }
                     break;
                 case 6:
-                    Common.getBatchList().clear();
-                    loadUI(activity);
+                    clearSelection();
+                    break;
+                case 7:
+                    Common.getBatchList().invert(mRecycleViewAdapter.getItems(0, mRecycleViewAdapter.getItemCount()));
+                    mBatchOptions.setVisibility(Common.getBatchList().size() > 0 ? View.VISIBLE : View.GONE);
+                    mRecycleViewAdapter.notifyItemRangeChanged(0, mRecycleViewAdapter.getItemCount());
+                    break;
+                case 8:
+                    Utils.saveBoolean("batch_all_users", !Utils.getBoolean("batch_all_users", false, activity), activity);
                     break;
             }
             return false;
@@ -498,44 +623,32 @@ public class PackageTasksFragment extends Fragment {
         popupMenu.show();
     }
 
-    private void loadUI(Activity activity) {
-        new AsyncTasks() {
-
-            @Override
-            public void onPreExecute() {
-                mProgress.setVisibility(View.VISIBLE);
-                mBatchOptions.setVisibility(View.GONE);
-                mRecyclerView.setVisibility(View.GONE);
-                if (Utils.getBoolean("select_all", false, activity)) {
-                    Common.getBatchList().clear();
-                    for (RecycleViewItem mPackage : PackageData.getData(activity)) {
-                        Common.getBatchList().add(mPackage.getPackageName());
-                    }
-                } else {
-                    Common.getBatchList().clear();
-                }
-                mRecyclerView.removeAllViews();
-            }
-
-            @Override
-            public void doInBackground() {
-                mRecycleViewAdapter = new RecycleViewAdapter(PackageData.getData(activity));
+    // Search, sort and app type changes only swap the list for the new result and keep the selection
+    private void updateUI(Activity activity, long delay) {
+        mQueryScheduler.schedule(activity, delay, data -> {
+            if (Utils.getBoolean("select_all", false, activity)) {
+                Utils.saveBoolean("select_all", false, activity);
+                Common.getBatchList().clear();
+                Common.getBatchList().selectAll(data);
+                // Rows staying in place are not rebound by the diff, their check boxes are
+                mRecycleViewAdapter.notifyItemRangeChanged(0, mRecycleViewAdapter.getItemCount());
             }
+            mBatchOptions.setVisibility(Common.getBatchList().size() > 0 ? View.VISIBLE : View.GONE);
+            mRecycleViewAdapter.submitList(data, Settings.get(activity).isFuzzySearch());
+            mProgress.setVisibility(View.GONE);
+            mRecyclerView.setVisibility(View.VISIBLE);
+            mRecyclerView.post(() -> updateVisibleRows());
+            PackageResolver.start(activity);
+        });
+    }
 
-            @Override
-            public void onPostExecute() {
-                if (Utils.getBoolean("select_all", false, activity)) {
-                    Utils.saveBoolean("select_all", false, activity);
-                    mBatchOptions.setVisibility(View.VISIBLE);
-                } else {
-                    mBatchOptions.setVisibility(View.GONE);
-                }
-                mBatchOptions.setVisibility(Common.getBatchList().size() > 0 ? View.VISIBLE : View.GONE);
-                mRecyclerView.setAdapter(mRecycleViewAdapter);
-                mProgress.setVisibility(View.GONE);
-                mRecyclerView.setVisibility(View.VISIBLE);
-            }
-        }.execute();
+    private void loadUI(Activity activity) {
+        // Once the list is there, it stays usable while it is being refreshed
+        if (mRecycleViewAdapter.getItemCount() == 0) {
+            mProgress.setVisibility(View.VISIBLE);
+            mRecyclerView.setVisibility(View.GONE);
+        }
+        updateUI(activity, 0);
     }
 
     @Override
@@ -543,46 +656,16 @@ public class PackageTasksFragment extends Fragment {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (resultCode == Activity.RESULT_OK && data != null) {
+            // The inventory itself is patched by PackageReceiver once the package is gone
             if (requestCode == 0) {
                 // If uninstallation succeed
-                try {
-                    for (RecycleViewItem item : PackageData.getRawData()) {
-                        if (item.getPackageName().equals(Common.getBatchList().get(0))) {
-                            PackageData.getRawData().remove(item);
-                            Common.getBatchList().remove(0);
-                            if (!Common.reloadPage()) Common.reloadPage(true);
-                        }
-                    }
-                } catch (ConcurrentModificationException ignored) {}
+                Common.getBatchList().removeFirst();
                 handleUninstallEvent();
-            } else {
-                new AsyncTasks() {
-
-                    @Override
-                    public void onPreExecute() {
-                    }
-
-                    @Override
-                    public void doInBackground() {
-                        try {
-                            for (RecycleViewItem item : PackageData.getRawData()) {
-                                if (item.getPackageName().equals(Common.getApplicationID())) {
-                                    PackageData.getRawData().remove(item);
-                                }
-                            }
-                        } catch (ConcurrentModificationException ignored) {}
-                    }
-
-                    @Override
-                    public void onPostExecute() {
-                        loadUI(requireActivity());
-                    }
-                }.execute();
             }
         } else if (requestCode == 0) {
             // If uninstallation cancelled or failed
-            Utils.snackbar(mRecyclerView, getString(R.string.uninstall_status_failed, PackageData.getAppName(Common.getBatchList().get(0), requireActivity())));
-            Common.getBatchList().remove(0);
+            Utils.snackbar(mRecyclerView, getString(R.string.uninstall_status_failed, PackageData.getAppName(Common.getBatchList().getFirst(), requireActivity())));
+            Common.getBatchList().removeFirst();
             handleUninstallEvent();
         }
     }
@@ -599,16 +682,20 @@ public class PackageTasksFragment extends Fragment {
         } else if (Common.reloadPage()) {
             Common.reloadPage(false);
             loadUI(requireActivity());
+            UserProfiles.load(requireActivity());
         }
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        InstalledState.removeListener(mInstalledListener);
+        // Clearing the search schedules one more query, released right after
         if (Common.getSearchText() != null) {
             mSearchWord.setText(null);
             Common.setSearchText(null);
         }
+        mQueryScheduler.release();
     }
 
 }
\ No newline at end of file
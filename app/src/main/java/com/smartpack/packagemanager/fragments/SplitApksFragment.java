@@ -23,8 +23,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.smartpack.packagemanager.R;
 import com.smartpack.packagemanager.adapters.RecycleViewSplitAPKsAdapter;
 import com.smartpack.packagemanager.utils.Common;
-import com.smartpack.packagemanager.utils.PackageData;
-import com.smartpack.packagemanager.utils.SplitAPKInstaller;
+import com.smartpack.packagemanager.utils.SplitInventory;
 
 /*
  * Created by sunilpaulmathew <sunil.kde@gmail.com> on February 16, 2021
@@ -40,7 +39,7 @@ public class SplitApksFragment extends Fragment {
         RecyclerView mRecyclerView = mRootView.findViewById(R.id.recycler_view);
         mRecyclerView.setLayoutManager(new LinearLayoutManager(getActivity()));
         mRecyclerView.addItemDecoration(new DividerItemDecoration(requireActivity(), DividerItemDecoration.VERTICAL));
-        RecycleViewSplitAPKsAdapter mRecycleViewAdapter = new RecycleViewSplitAPKsAdapter(SplitAPKInstaller.splitApks(PackageData.getParentDir(Common.getApplicationID(), requireActivity())));
+        RecycleViewSplitAPKsAdapter mRecycleViewAdapter = new RecycleViewSplitAPKsAdapter(SplitInventory.of(Common.getApplicationID(), requireActivity()).getSplits());
         mRecyclerView.setAdapter(mRecycleViewAdapter);
 
         return mRootView;
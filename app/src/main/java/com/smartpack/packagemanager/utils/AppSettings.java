@@ -199,6 +199,14 @@ public class AppSettings {
         }
     }
 
+    public static String getScanThreadsDescription(Activity activity) {
+        if (Utils.getInt("scan_threads", 0, activity) > 0) {
+            return String.valueOf(PackageScanner.getParallelism(activity));
+        } else {
+            return activity.getString(R.string.scan_threads_auto, PackageScanner.getParallelism(activity));
+        }
+    }
+
     public static String getInstallerStatus(Activity activity) {
         if (Utils.getBoolean("neverShow", false, activity)) {
             return activity.getString(R.string.installer_file_picker);
@@ -13,8 +13,8 @@ import android.view.View;
 
 import com.google.android.material.card.MaterialCardView;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /*
  * Created by sunilpaulmathew <sunil.kde@gmail.com> on May 03, 2021
@@ -27,11 +27,16 @@ public class Common {
 
     private static Drawable mApplicationIcon;
 
-    private static final List<String> mAPKList = new ArrayList<>(), mBatchList = new ArrayList<>(), mRestoreList = new ArrayList<>();
+    // Iterated by installer tasks in the background while the UI may still change them
+    private static final List<String> mAPKList = new CopyOnWriteArrayList<>(), mRestoreList = new CopyOnWriteArrayList<>();
+
+    private static final Selection mBatchList = new Selection();
 
     private static MaterialCardView mBatchOptions = null, mRestore = null, mSelect = null;
 
-    private static String mApplicationID, mDirData, mDirNatLib, mDirSource, mPath, mSearchText;
+    private static String mApplicationID, mDirData, mDirNatLib, mDirSource, mPath;
+
+    private static volatile String mSearchText;
 
     private static final StringBuilder mOutput = new StringBuilder();
 
@@ -56,12 +61,7 @@ public class Common {
     }
 
     public static boolean isTextMatched(String searchText) {
-        for (int a = 0; a < searchText.length() - mSearchText.length() + 1; a++) {
-            if (mSearchText.equalsIgnoreCase(searchText.substring(a, a + mSearchText.length()))) {
-                return true;
-            }
-        }
-        return false;
+        return TextMatcher.matches(searchText, mSearchText);
     }
 
     public static CharSequence getApplicationName() {
@@ -104,7 +104,7 @@ public class Common {
         return mAPKList;
     }
 
-    public static List<String> getBatchList() {
+    public static Selection getBatchList() {
         return mBatchList;
     }
 
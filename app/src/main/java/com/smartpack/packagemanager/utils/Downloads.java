@@ -53,12 +53,7 @@ public class Downloads {
     }
 
     private static boolean isTextMatched(String searchText) {
-        for (int a = 0; a < searchText.length() - mSearchText.length() + 1; a++) {
-            if (mSearchText.equalsIgnoreCase(searchText.substring(a, a + mSearchText.length()))) {
-                return true;
-            }
-        }
-        return false;
+        return TextMatcher.matches(searchText, mSearchText);
     }
 
     private static File[] getDownloadList(Context context) {
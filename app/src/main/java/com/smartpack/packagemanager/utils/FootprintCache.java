@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.annotation.TargetApi;
+import android.app.AppOpsManager;
+import android.app.usage.StorageStats;
+import android.app.usage.StorageStatsManager;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Process;
+import android.os.UserHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * What each package of this user really takes up: APKs and compiled code, data and cache. Measured
+ * with StorageStatsManager if usage access is granted, otherwise with du as root. Measurements are
+ * kept until the package is updated or removed, a refresh only measures those. Packages of other
+ * users are not measured, their lists fall back to the APK size.
+ */
+public class FootprintCache {
+
+    private static final Map<String, Footprint> mFootprints = new ConcurrentHashMap<>();
+    private static final AtomicBoolean mRunning = new AtomicBoolean(false);
+    private static volatile long mRefreshedVersion = -1;
+
+    public static class Footprint {
+        private final long mCode, mData, mCache, mUpdatedTime;
+
+        private Footprint(long code, long data, long cache, long updatedTime) {
+            this.mCode = code;
+            this.mData = data;
+            this.mCache = cache;
+            this.mUpdatedTime = updatedTime;
+        }
+
+        public long getCode() {
+            return mCode;
+        }
+
+        // Includes the cache, like StorageStats.getDataBytes()
+        public long getData() {
+            return mData;
+        }
+
+        public long getCache() {
+            return mCache;
+        }
+
+        public long getTotal() {
+            return mCode + mData;
+        }
+    }
+
+    // Null until the package has been measured
+    public static Footprint get(String packageName) {
+        return mFootprints.get(packageName);
+    }
+
+    public static void invalidate(String packageName) {
+        mFootprints.remove(packageName);
+    }
+
+    public static boolean isAvailable(Context context) {
+        return hasUsageAccess(context) || Utils.rootAccess();
+    }
+
+    private static boolean hasUsageAccess(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return false;
+        AppOpsManager appOps = (AppOpsManager) context.getSystemService(Context.APP_OPS_SERVICE);
+        return appOps.checkOpNoThrow(AppOpsManager.OPSTR_GET_USAGE_STATS, Process.myUid(),
+                context.getPackageName()) == AppOpsManager.MODE_ALLOWED;
+    }
+
+    /*
+     * Measures the packages of the current inventory which are new or updated, in the background. The
+     * inventory is published again once they are known, so that lists sorted or filtered by footprint
+     * follow.
+     */
+    public static void refresh(Context context) {
+        PackageRepository.Inventory inventory = PackageRepository.get();
+        if (!inventory.isLoaded() || inventory.getVersion() == mRefreshedVersion) return;
+        if (!mRunning.compareAndSet(false, true)) return;
+        Context mContext = context.getApplicationContext();
+        new AsyncTasks() {
+            private boolean mChanged = false;
+
+            @Override
+            public void onPreExecute() {
+            }
+
+            @Override
+            public void doInBackground() {
+                mChanged = collect(inventory, mContext);
+            }
+
+            @Override
+            public void onPostExecute() {
+                mRefreshedVersion = mChanged ? PackageRepository.republish().getVersion() : inventory.getVersion();
+                mRunning.set(false);
+            }
+        }.execute();
+    }
+
+    private static boolean collect(PackageRepository.Inventory inventory, Context context) {
+        Set<String> mPackages = new HashSet<>();
+        List<RecycleViewItem> mStale = new ArrayList<>();
+        for (RecycleViewItem item : inventory.getItems()) {
+            mPackages.add(item.getPackageName());
+            Footprint footprint = mFootprints.get(item.getPackageName());
+            if (footprint == null || footprint.mUpdatedTime != item.getUpdatedTime()) {
+                mStale.add(item);
+            }
+        }
+        boolean changed = mFootprints.keySet().retainAll(mPackages);
+        if (mStale.isEmpty()) return changed;
+        boolean usageAccess = hasUsageAccess(context);
+        if (!usageAccess && !Utils.rootAccess()) return changed;
+        Map<String, ApplicationInfo> mAppInfos = getAppInfos(context);
+        if (usageAccess) {
+            queryStats(mStale, mAppInfos, context);
+        } else {
+            measure(mStale, mAppInfos);
+        }
+        return true;
+    }
+
+    // One package query for all the packages to measure, instead of one lookup each
+    private static Map<String, ApplicationInfo> getAppInfos(Context context) {
+        Map<String, ApplicationInfo> mAppInfos = new HashMap<>();
+        for (PackageInfo packageInfo : PackageData.getSource(context).getInstalledPackages(0)) {
+            if (packageInfo.applicationInfo != null) {
+                mAppInfos.put(packageInfo.packageName, packageInfo.applicationInfo);
+            }
+        }
+        return mAppInfos;
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    private static void queryStats(List<RecycleViewItem> items, Map<String, ApplicationInfo> appInfos, Context context) {
+        StorageStatsManager manager = (StorageStatsManager) context.getSystemService(Context.STORAGE_STATS_SERVICE);
+        UserHandle user = Process.myUserHandle();
+        for (RecycleViewItem item : items) {
+            ApplicationInfo appInfo = appInfos.get(item.getPackageName());
+            if (appInfo == null) continue;
+            try {
+                StorageStats stats = manager.queryStatsForPackage(appInfo.storageUuid, item.getPackageName(), user);
+                mFootprints.put(item.getPackageName(), new Footprint(stats.getAppBytes(), stats.getDataBytes(),
+                        stats.getCacheBytes(), item.getUpdatedTime()));
+            } catch (IOException | PackageManager.NameNotFoundException | SecurityException ignored) {
+            }
+        }
+    }
+
+    /*
+     * All directories of a package are sized by a single shell call, which runs one du per CPU core in
+     * parallel over its share of the packages.
+     */
+    private static void measure(List<RecycleViewItem> items, Map<String, ApplicationInfo> appInfos) {
+        int userId = UserProfiles.getOwnUserId();
+        // Path -> {package, kind}, kind being 0 for code, 1 for data and 2 for cache
+        Map<String, String[]> mPaths = new HashMap<>();
+        for (RecycleViewItem item : items) {
+            ApplicationInfo appInfo = appInfos.get(item.getPackageName());
+            if (appInfo == null || appInfo.sourceDir == null) continue;
+            String packageName = item.getPackageName();
+            File codeDir = new File(appInfo.sourceDir).getParentFile();
+            if (codeDir != null) {
+                mPaths.put(codeDir.getAbsolutePath(), new String[] {packageName, "0"});
+            }
+            if (appInfo.dataDir != null) {
+                mPaths.put(appInfo.dataDir, new String[] {packageName, "1"});
+                mPaths.put(appInfo.dataDir + "/cache", new String[] {packageName, "2"});
+            }
+            mPaths.put("/data/media/" + userId + "/Android/data/" + packageName, new String[] {packageName, "1"});
+            mPaths.put("/data/media/" + userId + "/Android/obb/" + packageName, new String[] {packageName, "1"});
+        }
+        if (mPaths.isEmpty()) return;
+
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        List<StringBuilder> mCommands = new ArrayList<>(parallelism);
+        int i = 0;
+        for (String path : mPaths.keySet()) {
+            if (mCommands.size() < parallelism) {
+                mCommands.add(new StringBuilder("du -sk"));
+            }
+            mCommands.get(i++ % parallelism).append(" '").append(path).append("'");
+        }
+        StringBuilder command = new StringBuilder();
+        for (StringBuilder du : mCommands) {
+            command.append(du).append(" 2>/dev/null & ");
+        }
+        command.append("wait");
+
+        Map<String, long[]> mSizes = new HashMap<>();
+        for (String line : Utils.runAndGetOutput(command.toString()).split("\\n")) {
+            String[] columns = line.trim().split("\\s+", 2);
+            if (columns.length < 2) continue;
+            String[] target = mPaths.get(columns[1]);
+            if (target == null) continue;
+            try {
+                long[] sizes = mSizes.get(target[0]);
+                if (sizes == null) {
+                    sizes = new long[3];
+                    mSizes.put(target[0], sizes);
+                }
+                sizes[Integer.parseInt(target[1])] += Long.parseLong(columns[0]) * 1024;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        for (RecycleViewItem item : items) {
+            long[] sizes = mSizes.get(item.getPackageName());
+            if (sizes == null) continue;
+            mFootprints.put(item.getPackageName(), new Footprint(sizes[0], sizes[1], sizes[2], item.getUpdatedTime()));
+        }
+    }
+
+}
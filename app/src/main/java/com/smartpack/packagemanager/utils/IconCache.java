@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.smartpack.packagemanager.R;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Decodes application icons off the UI thread at the size of the view showing them and keeps the
+ * bitmaps in an LRU cache bounded by the memory class of the device, backed by PNG thumbnails in
+ * cache/icons which survive the process.
+ */
+public class IconCache {
+
+    // Trimmed down to three quarters once exceeded, least recently used thumbnails first
+    private static final long DISK_CACHE_SIZE = 16 * 1024 * 1024;
+
+    private static final ExecutorService mExecutor = Executors.newFixedThreadPool(2);
+    private static final Handler mHandler = new Handler(Looper.getMainLooper());
+    private static LruCache<String, Bitmap> mCache = null;
+    private static long mDiskSize = -1;
+
+    private static synchronized LruCache<String, Bitmap> getCache(Context context) {
+        if (mCache == null) {
+            ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            // An eighth of the per-app heap, in bytes
+            int maxSize = am.getMemoryClass() * 1024 * 1024 / 8;
+            mCache = new LruCache<String, Bitmap>(maxSize) {
+                @Override
+                protected int sizeOf(String key, Bitmap bitmap) {
+                    return bitmap.getAllocationByteCount();
+                }
+            };
+        }
+        return mCache;
+    }
+
+    private static int getSize(ImageView view) {
+        int size = view.getLayoutParams() != null ? view.getLayoutParams().width : 0;
+        if (size <= 0) {
+            size = view.getWidth();
+        }
+        return size > 0 ? size : Math.round(48 * view.getResources().getDisplayMetrics().density);
+    }
+
+    private static File getDiskDir(Context context) {
+        return new File(context.getCacheDir(), "icons");
+    }
+
+    /*
+     * Thumbnails are named after package, last update time and size, so an updated package never
+     * matches its stale entries.
+     */
+    private static File getDiskFile(String key, Context context) {
+        return new File(getDiskDir(context), key + ".png");
+    }
+
+    private static Bitmap readDisk(String key, Context context) {
+        File file = getDiskFile(key, context);
+        if (!file.exists()) return null;
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getAbsolutePath());
+        if (bitmap != null) {
+            file.setLastModified(System.currentTimeMillis());
+        }
+        return bitmap;
+    }
+
+    private static synchronized void writeDisk(String key, Bitmap bitmap, Context context) {
+        File dir = getDiskDir(context);
+        if (!dir.exists() && !dir.mkdirs()) return;
+        if (mDiskSize < 0) {
+            mDiskSize = 0;
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    mDiskSize += file.length();
+                }
+            }
+        }
+        File file = getDiskFile(key, context), tmp = new File(dir, key + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException ignored) {
+            tmp.delete();
+            return;
+        }
+        long previous = file.length();
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            return;
+        }
+        mDiskSize += file.length() - previous;
+        if (mDiskSize > DISK_CACHE_SIZE) {
+            File[] files = dir.listFiles();
+            if (files == null) return;
+            Arrays.sort(files, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+            for (File entry : files) {
+                if (mDiskSize <= DISK_CACHE_SIZE * 3 / 4) break;
+                long length = entry.length();
+                if (entry.delete()) {
+                    mDiskSize -= length;
+                }
+            }
+        }
+    }
+
+    // Drops the thumbnails of a package which was updated or removed
+    public static synchronized void invalidate(String packageName, Context context) {
+        File[] files = getDiskDir(context).listFiles((dir, name) -> name.startsWith(packageName + "@"));
+        if (files == null) return;
+        for (File file : files) {
+            long length = file.length();
+            if (file.delete() && mDiskSize >= 0) {
+                mDiskSize -= length;
+            }
+        }
+    }
+
+    private static Bitmap decode(String packageName, int size, PackageManager pm) {
+        try {
+            Drawable icon = pm.getApplicationIcon(packageName);
+            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            icon.setBounds(0, 0, size, size);
+            icon.draw(new Canvas(bitmap));
+            return bitmap;
+        } catch (PackageManager.NameNotFoundException ignored) {
+        }
+        return null;
+    }
+
+    public static void load(ImageView view, RecycleViewItem item) {
+        if (!load(view, item.getPackageName(), item.getUpdatedTime(), getSize(view))) {
+            view.setImageResource(R.drawable.ic_android);
+        }
+    }
+
+    public static void load(ImageView view, String packageName, long updatedTime) {
+        load(view, packageName, updatedTime, getSize(view));
+    }
+
+    /*
+     * Shows the icon of packageName on view, right away if it is held in memory (returns true), otherwise
+     * once read from disk or decoded. A view rebound to another package in the meantime is left alone.
+     */
+    public static boolean load(ImageView view, String packageName, long updatedTime, int size) {
+        LruCache<String, Bitmap> cache = getCache(view.getContext());
+        String key = packageName + "@" + updatedTime + "_" + size;
+        view.setTag(key);
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return true;
+        }
+        Context context = view.getContext().getApplicationContext();
+        mExecutor.execute(() -> {
+            Bitmap bitmap = cache.get(key);
+            if (bitmap == null) {
+                bitmap = readDisk(key, context);
+                if (bitmap == null) {
+                    bitmap = decode(packageName, size, PackageData.getPackageManager(context));
+                    if (bitmap == null) return;
+                    writeDisk(key, bitmap, context);
+                }
+                cache.put(key, bitmap);
+            }
+            Bitmap mBitmap = bitmap;
+            mHandler.post(() -> {
+                if (key.equals(view.getTag())) {
+                    view.setImageBitmap(mBitmap);
+                }
+            });
+        });
+        return false;
+    }
+
+    public static synchronized void trimMemory(int level) {
+        if (mCache == null) return;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            mCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mCache.trimToSize(mCache.maxSize() / 2);
+        }
+    }
+
+}
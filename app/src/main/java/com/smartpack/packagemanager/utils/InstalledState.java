@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Whether a package is installed, answered from the inventory instead of a PackageManager call.
+ * Removals reported by PackageReceiver apply right away, before the inventory itself is patched.
+ */
+public class InstalledState {
+
+    private static final List<OnChangeListener> mListeners = new ArrayList<>();
+    private static final Set<String> mRemoved = Collections.synchronizedSet(new HashSet<>());
+    private static long mVersion = -1;
+    private static Set<String> mInstalled = new HashSet<>();
+
+    public interface OnChangeListener {
+        void onChanged(String packageName);
+    }
+
+    public static synchronized boolean isInstalled(String packageName) {
+        PackageRepository.Inventory inventory = PackageRepository.get();
+        if (inventory.isLoaded() && inventory.getVersion() != mVersion) {
+            Set<String> mPackages = new HashSet<>(inventory.getItems().size() * 2);
+            for (RecycleViewItem item : inventory.getItems()) {
+                mPackages.add(item.getPackageName());
+            }
+            mInstalled = mPackages;
+            mVersion = inventory.getVersion();
+        }
+        return mInstalled.contains(packageName) && !mRemoved.contains(packageName);
+    }
+
+    // Called from the UI thread as soon as a package broadcast arrives
+    static void setInstalled(String packageName, boolean installed) {
+        boolean changed = installed ? mRemoved.remove(packageName) : mRemoved.add(packageName);
+        if (!changed) return;
+        for (OnChangeListener listener : new ArrayList<>(mListeners)) {
+            listener.onChanged(packageName);
+        }
+    }
+
+    public static void addListener(OnChangeListener listener) {
+        mListeners.add(listener);
+    }
+
+    public static void removeListener(OnChangeListener listener) {
+        mListeners.remove(listener);
+    }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Structured search, e.g. "size:>100MB system:false updated:<30d enabled:false perm:CAMERA". Each
+ * key:value term becomes a filter over PackageColumns, anything else is matched as plain text.
+ *
+ *   size:[<|>|<=|>=|=]N[B|KB|MB|GB]       APK size, splits included
+ *   footprint:, cache:[<|>|..]N[B|..]      total footprint or cache size, see FootprintCache
+ *   installed:, updated:[<|>|..]N[h|d|w|m|y]  age, updated:<30d means updated within the last 30 days
+ *   system:, enabled:, bundle:[true|false]
+ *   name:, id:TEXT                         label or package name contains TEXT
+ *   perm:TEXT                              a requested permission contains TEXT
+ */
+public class InventoryQuery {
+
+    private static final long HOUR = 60 * 60 * 1000L, DAY = 24 * HOUR;
+
+    // Permissions are only looked up for the few packages left by every other filter, and then kept
+    private static final Map<String, String[]> mPermissions = new ConcurrentHashMap<>();
+
+    private static InventoryQuery mLastQuery = null;
+
+    private final List<Filter> mFilters = new ArrayList<>();
+    private final List<String> mTexts = new ArrayList<>();
+    private final String mQuery;
+    private boolean mFootprints = false;
+
+    private interface Column {
+        long get(PackageColumns columns, int row);
+    }
+
+    private interface Test {
+        boolean test(PackageColumns columns, int row, long now);
+    }
+
+    private static class Filter {
+        // Relative cost of a single test, cheaper filters run first
+        private final int mCost;
+        private final Test mTest;
+
+        private Filter(int cost, Test test) {
+            this.mCost = cost;
+            this.mTest = test;
+        }
+    }
+
+    private InventoryQuery(String query, PackageSource source) {
+        mQuery = query;
+        for (String term : query.trim().split("\\s+")) {
+            if (term.isEmpty()) continue;
+            Filter filter = null;
+            int colon = term.indexOf(':');
+            String key = colon > 0 ? term.substring(0, colon).toLowerCase(Locale.ROOT) : null;
+            if (key != null && colon < term.length() - 1) {
+                filter = parseTerm(key, term.substring(colon + 1), source);
+            }
+            if (filter != null) {
+                mFilters.add(filter);
+                mFootprints |= key.equals("footprint") || key.equals("cache");
+            } else {
+                mTexts.add(term);
+            }
+        }
+        Collections.sort(mFilters, (f1, f2) -> Integer.compare(f1.mCost, f2.mCost));
+    }
+
+    // Whether the query filters by footprint, which has to be measured first
+    public boolean usesFootprints() {
+        return mFootprints;
+    }
+
+    public static boolean isQuery(String text) {
+        return text != null && text.indexOf(':') > 0;
+    }
+
+    // Parsed once, typing the same query again (or filtering it by another app type) reuses it
+    public static synchronized InventoryQuery parse(String query, Context context) {
+        if (mLastQuery == null || !mLastQuery.mQuery.equals(query)) {
+            mLastQuery = new InventoryQuery(query, PackageData.getSource(context));
+        }
+        return mLastQuery;
+    }
+
+    private static Filter parseTerm(String key, String value, PackageSource source) {
+        switch (key) {
+            case "system":
+                return parseFlag(PackageColumns.FLAG_SYSTEM, value);
+            case "enabled":
+                return parseFlag(PackageColumns.FLAG_ENABLED, value);
+            case "bundle":
+                return parseFlag(PackageColumns.FLAG_BUNDLE, value);
+            case "size":
+                return parseSize(value, PackageColumns::getSize);
+            case "footprint":
+                return parseSize(value, PackageColumns::getFootprint);
+            case "cache":
+                return parseSize(value, PackageColumns::getCache);
+            case "installed":
+            case "updated":
+                return parseAge(key.equals("installed"), value);
+            case "name":
+                return new Filter(3, (columns, row, now) -> TextMatcher.matches(columns.getAppName(row), value));
+            case "id":
+                return new Filter(3, (columns, row, now) -> TextMatcher.matches(columns.getPackageName(row), value));
+            case "perm":
+                return new Filter(100, (columns, row, now) -> {
+                    for (String permission : getPermissions(columns.getItem(row), source)) {
+                        if (TextMatcher.matches(permission, value)) return true;
+                    }
+                    return false;
+                });
+            default:
+                return null;
+        }
+    }
+
+    private static Filter parseFlag(int flag, String value) {
+        boolean expected;
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("yes")) {
+            expected = true;
+        } else if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("no")) {
+            expected = false;
+        } else {
+            return null;
+        }
+        return new Filter(1, (columns, row, now) -> ((columns.getFlags(row) & flag) != 0) == expected);
+    }
+
+    // Returns the comparison (<, >, <=, >=, =) and the length of its operator as {comparison, length}
+    private static int[] parseOperator(String value) {
+        if (value.startsWith("<=")) return new int[] {-2, 2};
+        if (value.startsWith(">=")) return new int[] {2, 2};
+        if (value.startsWith("<")) return new int[] {-1, 1};
+        if (value.startsWith(">")) return new int[] {1, 1};
+        if (value.startsWith("=")) return new int[] {0, 1};
+        return new int[] {0, 0};
+    }
+
+    private static boolean compare(long actual, int comparison, long expected) {
+        switch (comparison) {
+            case -2:
+                return actual <= expected;
+            case -1:
+                return actual < expected;
+            case 1:
+                return actual > expected;
+            case 2:
+                return actual >= expected;
+            default:
+                return actual == expected;
+        }
+    }
+
+    // Splits "100MB" into the number and the (lower-cased) unit, or returns null
+    private static String[] splitUnit(String value) {
+        int i = 0;
+        while (i < value.length() && (Character.isDigit(value.charAt(i)) || value.charAt(i) == '.')) i++;
+        if (i == 0) return null;
+        return new String[] {value.substring(0, i), value.substring(i).toLowerCase(Locale.ROOT)};
+    }
+
+    private static Filter parseSize(String value, Column column) {
+        int[] operator = parseOperator(value);
+        String[] number = splitUnit(value.substring(operator[1]));
+        if (number == null) return null;
+        long unit;
+        switch (number[1]) {
+            case "":
+            case "b":
+                unit = 1;
+                break;
+            case "k":
+            case "kb":
+                unit = 1024;
+                break;
+            case "m":
+            case "mb":
+                unit = 1024 * 1024;
+                break;
+            case "g":
+            case "gb":
+                unit = 1024 * 1024 * 1024;
+                break;
+            default:
+                return null;
+        }
+        try {
+            long size = (long) (Double.parseDouble(number[0]) * unit);
+            return new Filter(2, (columns, row, now) -> compare(column.get(columns, row), operator[0], size));
+        } catch (NumberFormatException ignored) {
+        }
+        return null;
+    }
+
+    private static Filter parseAge(boolean installed, String value) {
+        int[] operator = parseOperator(value);
+        String[] number = splitUnit(value.substring(operator[1]));
+        if (number == null) return null;
+        long unit;
+        switch (number[1]) {
+            case "h":
+                unit = HOUR;
+                break;
+            case "":
+            case "d":
+                unit = DAY;
+                break;
+            case "w":
+                unit = 7 * DAY;
+                break;
+            case "m":
+                unit = 30 * DAY;
+                break;
+            case "y":
+                unit = 365 * DAY;
+                break;
+            default:
+                return null;
+        }
+        try {
+            long age = (long) (Double.parseDouble(number[0]) * unit);
+            return new Filter(2, (columns, row, now) -> compare(now - (installed ? columns.getInstalledTime(row)
+                    : columns.getUpdatedTime(row)), operator[0], age));
+        } catch (NumberFormatException ignored) {
+        }
+        return null;
+    }
+
+    private static String[] getPermissions(RecycleViewItem item, PackageSource source) {
+        String key = item.getPackageName() + "@" + item.getUpdatedTime();
+        String[] permissions = mPermissions.get(key);
+        if (permissions == null) {
+            try {
+                permissions = source.getPackageInfo(item.getPackageName(), PackageManager.GET_PERMISSIONS).requestedPermissions;
+            } catch (PackageManager.NameNotFoundException ignored) {
+            }
+            if (permissions == null) {
+                permissions = new String[0];
+            }
+            mPermissions.put(key, permissions);
+        }
+        return permissions;
+    }
+
+    /*
+     * Same contract as PackageColumns.filter: walks the rows in the order of the given sort mode and
+     * writes the matching ones into index, returning their count.
+     */
+    public int filter(PackageColumns columns, int[] index, int mode, int mask, int value) {
+        BitSet mMatches = null;
+        for (String text : mTexts) {
+            BitSet matches = columns.search(text);
+            if (mMatches == null) {
+                mMatches = matches;
+            } else {
+                mMatches.and(matches);
+            }
+        }
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (int row : columns.getOrder(mode)) {
+            if ((columns.getFlags(row) & mask) != value || columns.getPackageName(row).indexOf('.') < 0) continue;
+            if (mMatches != null && !mMatches.get(columns.getDocId(row))) continue;
+            boolean matched = true;
+            for (int i = 0; i < mFilters.size() && matched; i++) {
+                matched = mFilters.get(i).mTest.test(columns, row, now);
+            }
+            if (matched) {
+                index[count++] = row;
+            }
+        }
+        return count;
+    }
+
+}
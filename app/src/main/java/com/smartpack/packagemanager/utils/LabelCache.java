@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Application labels, which PackageManager can only produce by loading the resources of each app.
+ * A label is kept for as long as its package is not updated and the language stays the same, and
+ * persists across sessions.
+ */
+public class LabelCache {
+
+    // Layout: magic (int), version (int), locale (UTF), entry count (int), then package name (UTF), updated time (long), label (UTF)
+    private static final int MAGIC = 0x504D4C42;
+    private static final int VERSION = 1;
+
+    private static final Map<String, Label> mLabels = new ConcurrentHashMap<>();
+    private static String mLocale = null;
+    private static volatile boolean mDirty = false, mLoaded = false;
+
+    private static class Label {
+        private final long mUpdatedTime;
+        private final String mLabel;
+
+        private Label(long updatedTime, String label) {
+            this.mUpdatedTime = updatedTime;
+            this.mLabel = label;
+        }
+    }
+
+    private static File getFile(Context context) {
+        return new File(context.getFilesDir(), "labels.bin");
+    }
+
+    private static String getLocale(Context context) {
+        return Utils.getLanguage(context) + "/" + Locale.getDefault();
+    }
+
+    /*
+     * Reads the labels saved by the previous session. Returns false if they were saved for another
+     * language, labels shown so far (e.g. from the inventory snapshot) are outdated then.
+     */
+    public static synchronized boolean load(Context context) {
+        if (mLoaded) return true;
+        mLoaded = true;
+        String locale = getLocale(context);
+        mLocale = locale;
+        File mFile = getFile(context);
+        if (!mFile.exists()) return true;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return true;
+            }
+            if (!in.readUTF().equals(locale)) {
+                mDirty = true;
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String packageName = in.readUTF();
+                long updatedTime = in.readLong();
+                mLabels.put(packageName, new Label(updatedTime, in.readUTF()));
+            }
+        } catch (IOException ignored) {
+        }
+        return true;
+    }
+
+    public static synchronized void save(Context context) {
+        if (!mDirty || mLocale == null) return;
+        mDirty = false;
+        File mTemp = new File(context.getFilesDir(), "labels.bin.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mTemp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(mLocale);
+            Map<String, Label> mCopy = new ConcurrentHashMap<>(mLabels);
+            out.writeInt(mCopy.size());
+            for (Map.Entry<String, Label> entry : mCopy.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().mUpdatedTime);
+                out.writeUTF(entry.getValue().mLabel);
+            }
+        } catch (IOException ignored) {
+            mTemp.delete();
+            return;
+        }
+        if (!mTemp.renameTo(getFile(context))) {
+            mTemp.delete();
+        }
+    }
+
+    public static String getLabel(ApplicationInfo appInfo, long updatedTime, PackageSource source) {
+        Label label = mLabels.get(appInfo.packageName);
+        if (label != null && label.mUpdatedTime == updatedTime) {
+            return label.mLabel;
+        }
+        String mLabel = source.getLabel(appInfo);
+        mLabels.put(appInfo.packageName, new Label(updatedTime, mLabel));
+        mDirty = true;
+        return mLabel;
+    }
+
+    public static void invalidate(String packageName) {
+        if (mLabels.remove(packageName) != null) {
+            mDirty = true;
+        }
+    }
+
+    /*
+     * Called whenever the app language is applied. Drops every label if the language changed, and has
+     * the inventory labelled again.
+     */
+    public static void setLocale(Context context) {
+        String locale = getLocale(context);
+        synchronized (LabelCache.class) {
+            if (mLocale == null || mLocale.equals(locale)) {
+                mLocale = locale;
+                return;
+            }
+            mLocale = locale;
+            mLabels.clear();
+            mDirty = true;
+        }
+        PackageData.relabel(context);
+    }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ */
+public class PackageColumns {
+
+    public static final int FLAG_SYSTEM = 1;
+    public static final int FLAG_ENABLED = 1 << 1;
+    public static final int FLAG_BUNDLE = 1 << 2;
+
+    public static final int SORT_ID = 0;
+    public static final int SORT_NAME = 1;
+    public static final int SORT_INSTALLED = 2;
+    public static final int SORT_UPDATED = 3;
+    public static final int SORT_SIZE = 4;
+    public static final int SORT_FOOTPRINT = 5;
+    private static final int SORT_MODES = 6;
+
+    private final int mCount;
+    private final int[] mDocIds, mFlags;
+    private final long[] mSizes, mFootprints, mCaches, mInstalledTimes, mUpdatedTimes;
+    private final RecycleViewItem[] mItems;
+    private final String[] mAppNames, mPackageNames;
+    private final SearchIndex mSearchIndex;
+    // Built on first use: locale aware sort keys of the labels and the sorted row order of each mode
+    private CollationKey[] mNameKeys = null;
+    private final int[][] mOrders = new int[SORT_MODES][];
+    // Rows matching the last fuzzy query, the next one narrows down from them if it extends it
+    private String mFuzzyQuery = null;
+    private int[] mFuzzyRows = null;
+    private int mFuzzyCount = 0, mFuzzyMode = -1;
+
+    PackageColumns(PackageRepository.Inventory inventory) {
+        List<RecycleViewItem> source = inventory.getItems();
+        mCount = source.size();
+        mItems = source.toArray(new RecycleViewItem[0]);
+        mFlags = new int[mCount];
+        mSizes = new long[mCount];
+        mFootprints = new long[mCount];
+        mCaches = new long[mCount];
+        mInstalledTimes = new long[mCount];
+        mUpdatedTimes = new long[mCount];
+        mAppNames = new String[mCount];
+        mPackageNames = new String[mCount];
+        // Identical strings (shared labels, split names, ...) are kept only once
+        Map<String, String> mStrings = new HashMap<>();
+        for (int i = 0; i < mCount; i++) {
+            RecycleViewItem item = mItems[i];
+            mFlags[i] = (item.isSystemApp() ? FLAG_SYSTEM : 0) | (item.isEnabled() ? FLAG_ENABLED : 0)
+                    | (item.isBundle() ? FLAG_BUNDLE : 0);
+            mSizes[i] = item.getAPKSize();
+            // Packages not measured (yet) count with their APK size, so do those of other users
+            FootprintCache.Footprint footprint = inventory.isPublished() ? FootprintCache.get(item.getPackageName()) : null;
+            mFootprints[i] = footprint != null ? footprint.getTotal() : mSizes[i];
+            mCaches[i] = footprint != null ? footprint.getCache() : 0;
+            mInstalledTimes[i] = item.getInstalledTime();
+            mUpdatedTimes[i] = item.getUpdatedTime();
+            mAppNames[i] = intern(mStrings, item.getAppName().toLowerCase(Locale.ROOT));
+            mPackageNames[i] = intern(mStrings, item.getPackageName().toLowerCase(Locale.ROOT));
+        }
+        mSearchIndex = inventory.getSearchIndex(mItems);
+        mDocIds = mSearchIndex.getRows();
+    }
+
+    /*
+     * Built once for every inventory version, and kept with it
+     */
+    public static PackageColumns of(PackageRepository.Inventory inventory) {
+        return inventory.getColumns();
+    }
+
+    private static String intern(Map<String, String> strings, String string) {
+        String interned = strings.get(string);
+        if (interned == null) {
+            strings.put(string, string);
+            return string;
+        }
+        return interned;
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    // Row in the SearchIndex of the inventory
+    public int getDocId(int index) {
+        return mDocIds[index];
+    }
+
+    // Doc ids of the rows whose label or package name contains text
+    public BitSet search(String text) {
+        return mSearchIndex.search(text);
+    }
+
+    public int getFlags(int index) {
+        return mFlags[index];
+    }
+
+    public long getSize(int index) {
+        return mSizes[index];
+    }
+
+    // APKs, code, data and cache, see FootprintCache
+    public long getFootprint(int index) {
+        return mFootprints[index];
+    }
+
+    public long getCache(int index) {
+        return mCaches[index];
+    }
+
+    public long getInstalledTime(int index) {
+        return mInstalledTimes[index];
+    }
+
+    public long getUpdatedTime(int index) {
+        return mUpdatedTimes[index];
+    }
+
+    // Lower-cased label
+    public String getAppName(int index) {
+        return mAppNames[index];
+    }
+
+    // Lower-cased package name
+    public String getPackageName(int index) {
+        return mPackageNames[index];
+    }
+
+    public RecycleViewItem getItem(int index) {
+        return mItems[index];
+    }
+
+    /*
+     * All rows in the order of the given sort mode. Sorted only once per mode for as long as the
+     * inventory does not change, the returned array must not be modified.
+     */
+    public synchronized int[] getOrder(int mode) {
+        if (mOrders[mode] == null) {
+            if (mode == SORT_NAME && mNameKeys == null) {
+                Collator collator = Collator.getInstance();
+                collator.setStrength(Collator.SECONDARY);
+                mNameKeys = new CollationKey[mCount];
+                for (int i = 0; i < mCount; i++) {
+                    mNameKeys[i] = collator.getCollationKey(mAppNames[i]);
+                }
+            }
+            int[] order = new int[mCount];
+            for (int i = 0; i < mCount; i++) {
+                order[i] = i;
+            }
+            if (mCount > 1) {
+                mergeSort(order, new int[mCount], 0, mCount, mode);
+            }
+            mOrders[mode] = order;
+        }
+        return mOrders[mode];
+    }
+
+    /*
+     * Walks the rows in the order of the given sort mode, writes the matching ones into index (which
+     * should be able to hold size() rows) and returns their count. A row matches if (flags & mask) == value
+     * and the search text, if any, is found. The result is therefore sorted without any further pass.
+     */
+    public int filter(int[] index, int mode, int mask, int value, String searchText) {
+        int count = 0;
+        BitSet mMatches = searchText != null ? search(searchText) : null;
+        for (int i : getOrder(mode)) {
+            if ((mFlags[i] & mask) != value || mPackageNames[i].indexOf('.') < 0) continue;
+            if (mMatches == null || mMatches.get(mDocIds[i])) {
+                index[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Like filter, but keeps rows which fuzzily match query by label or package name and ranks them by
+     * score, ties in the order of the given sort mode.
+     */
+    public synchronized int fuzzyFilter(int[] index, int mode, int mask, int value, String query) {
+        String text = query.toLowerCase(Locale.ROOT);
+        int[] candidates;
+        int candidateCount;
+        if (mFuzzyQuery != null && mFuzzyMode == mode && text.startsWith(mFuzzyQuery)) {
+            candidates = mFuzzyRows;
+            candidateCount = mFuzzyCount;
+        } else {
+            candidates = getOrder(mode);
+            candidateCount = mCount;
+        }
+        int[] mRows = new int[candidateCount];
+        long[] mRanked = new long[candidateCount];
+        int count = 0, ranked = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int row = candidates[i];
+            int score = Math.max(TextMatcher.fuzzyScore(mItems[row].getAppName(), text),
+                    TextMatcher.fuzzyScore(mItems[row].getPackageName(), text));
+            if (score < 0) continue;
+            mRows[count++] = row;
+            if ((mFlags[row] & mask) == value && mPackageNames[row].indexOf('.') >= 0) {
+                // Highest score first, then by position in the candidate order
+                mRanked[ranked++] = ((long) (Integer.MAX_VALUE - score) << 32) | i;
+            }
+        }
+        mFuzzyQuery = text;
+        mFuzzyMode = mode;
+        mFuzzyRows = mRows;
+        mFuzzyCount = count;
+        Arrays.sort(mRanked, 0, ranked);
+        for (int i = 0; i < ranked; i++) {
+            index[i] = candidates[(int) mRanked[i]];
+        }
+        return ranked;
+    }
+
+    private int compare(int a, int b, int mode) {
+        switch (mode) {
+            case SORT_NAME:
+                return mNameKeys[a].compareTo(mNameKeys[b]);
+            case SORT_INSTALLED:
+                return Long.compare(mInstalledTimes[a], mInstalledTimes[b]);
+            case SORT_UPDATED:
+                return Long.compare(mUpdatedTimes[a], mUpdatedTimes[b]);
+            case SORT_SIZE:
+                return Long.compare(mSizes[a], mSizes[b]);
+            case SORT_FOOTPRINT:
+                return Long.compare(mFootprints[a], mFootprints[b]);
+            default:
+                return mPackageNames[a].compareTo(mPackageNames[b]);
+        }
+    }
+
+    // Stable, so rows with equal keys keep the inventory order
+    private void mergeSort(int[] index, int[] buffer, int from, int to, int mode) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(index, buffer, from, mid, mode);
+        mergeSort(index, buffer, mid, to, mode);
+        if (compare(index[mid - 1], index[mid], mode) <= 0) return;
+        System.arraycopy(index, from, buffer, from, to - from);
+        int i = from, j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compare(buffer[i], buffer[j], mode) <= 0)) {
+                index[k] = buffer[i++];
+            } else {
+                index[k] = buffer[j++];
+            }
+        }
+    }
+
+    public List<RecycleViewItem> view(int[] index, int count, boolean reverse) {
+        return new IndexView(mItems, index, count, reverse);
+    }
+
+    private static class IndexView extends AbstractList<RecycleViewItem> implements RandomAccess {
+        private final boolean mReverse;
+        private final int mCount;
+        private final int[] mIndex;
+        private final RecycleViewItem[] mItems;
+
+        private IndexView(RecycleViewItem[] items, int[] index, int count, boolean reverse) {
+            this.mItems = items;
+            this.mIndex = index;
+            this.mCount = count;
+            this.mReverse = reverse;
+        }
+
+        @Override
+        public RecycleViewItem get(int position) {
+            if (position < 0 || position >= mCount) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + mCount);
+            }
+            return mItems[mIndex[mReverse ? mCount - 1 - position : position]];
+        }
+
+        @Override
+        public int size() {
+            return mCount;
+        }
+    }
+
+}
@@ -22,9 +22,11 @@ import com.smartpack.packagemanager.R;
 import java.io.File;
 import java.text.DateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 
 /*
@@ -33,7 +35,10 @@ import java.util.Objects;
 
 public class PackageData {
 
-    private static List<RecycleViewItem> mRawData = null;
+    // The last list handed out by getData() and what it was derived from
+    private static List<RecycleViewItem> mView = null;
+    private static String mViewKey = null;
+    private static volatile PackageSource mSource = null;
 
     public static void makePackageFolder(Context context) {
         if (getPackageDir(context).exists() && getPackageDir(context).isFile()) {
@@ -42,62 +47,151 @@ public class PackageData {
         getPackageDir(context).mkdirs();
     }
 
-    private static List<RecycleViewItem> getRawData(Context context) {
-        List<RecycleViewItem> mRawData = new ArrayList<>();
-        List<ApplicationInfo> packages = getPackageManager(context).getInstalledApplications(PackageManager.GET_META_DATA);
-        for (ApplicationInfo packageInfo: packages) {
-            mRawData.add(new RecycleViewItem(
-                    packageInfo.packageName,
-                    getAppName(packageInfo.packageName, context),
-                    getAppIcon(packageInfo.packageName, context),
-                    new File(getSourceDir(packageInfo.packageName, context)).length(),
-                    Objects.requireNonNull(getPackageInfo(packageInfo.packageName, context)).firstInstallTime,
-                    Objects.requireNonNull(getPackageInfo(packageInfo.packageName, context)).lastUpdateTime));
-        }
-        return mRawData;
+    static RecycleViewItem getItem(PackageInfo packageInfo, PackageSource source) {
+        ApplicationInfo appInfo = packageInfo.applicationInfo;
+        return new RecycleViewItem(
+                packageInfo.packageName,
+                getAppName(appInfo, packageInfo.lastUpdateTime, source),
+                source.getAPKSize(appInfo, packageInfo.lastUpdateTime),
+                packageInfo.firstInstallTime,
+                packageInfo.lastUpdateTime,
+                (appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0,
+                appInfo.enabled,
+                appInfo.splitSourceDirs != null && appInfo.splitSourceDirs.length > 0);
     }
 
-    public static List<RecycleViewItem> getData(Context context) {
-        boolean mAppType;
-        List<RecycleViewItem> mData = new ArrayList<>();
-        for (RecycleViewItem item : getRawData()) {
-            if (Utils.getString("appTypes", "all", context).equals("system")) {
-                mAppType = (isSystemApp(item.getPackageName(), context));
-            } else if (Utils.getString("appTypes", "all", context).equals("user")) {
-                mAppType = (!isSystemApp(item.getPackageName(), context));
-            } else {
-                mAppType = true;
+    static RecycleViewItem getPlaceholderItem(PackageInfo packageInfo) {
+        ApplicationInfo appInfo = packageInfo.applicationInfo;
+        return new RecycleViewItem(
+                packageInfo.packageName,
+                packageInfo.packageName,
+                0,
+                packageInfo.firstInstallTime,
+                packageInfo.lastUpdateTime,
+                (appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0,
+                appInfo.enabled,
+                appInfo.splitSourceDirs != null && appInfo.splitSourceDirs.length > 0).unresolved();
+    }
+
+    /*
+     * The item with whatever a quick scan or a snapshot left out filled in. Uses the ApplicationInfo
+     * kept from the package query if there is one.
+     */
+    static RecycleViewItem resolveItem(RecycleViewItem item, PackageSource source) {
+        try {
+            ApplicationInfo appInfo = PackageScanner.takeAppInfo(item.getPackageName());
+            if (appInfo == null) {
+                appInfo = source.getApplicationInfo(item.getPackageName(), 0);
             }
-            if (mAppType && item.getPackageName().contains(".")) {
-                if (Common.getSearchText() == null) {
-                    mData.add(item);
-                } else if (Common.isTextMatched(item.getAppName())
-                        || Common.isTextMatched(item.getPackageName())) {
-                    mData.add(item);
-                }
+            return item.resolved(getAppName(appInfo, item.getUpdatedTime(), source), source.getAPKSize(appInfo, item.getUpdatedTime()));
+        } catch (PackageManager.NameNotFoundException ignored) {
+            // Removed in the meantime, PackageReceiver takes care of it
+            return item.resolved(item.getAppName(), item.getAPKSize());
+        }
+    }
+
+    /*
+     * Swaps resolved items in for the ones they were resolved from, as long as those are still part of
+     * the inventory. Published as a new version, so that lists and columns pick up the new labels.
+     */
+    static void replaceItems(Map<RecycleViewItem, RecycleViewItem> replacements) {
+        if (replacements.isEmpty()) return;
+        PackageRepository.Inventory base;
+        List<RecycleViewItem> mData;
+        do {
+            base = PackageRepository.get();
+            if (!base.isLoaded()) return;
+            mData = new ArrayList<>(base.getItems().size());
+            for (RecycleViewItem item : base.getItems()) {
+                RecycleViewItem replacement = replacements.get(item);
+                mData.add(replacement != null ? replacement : item);
             }
-            if (Utils.getBoolean("sort_name", false, context)) {
-                Collections.sort(mData, (lhs, rhs) -> String.CASE_INSENSITIVE_ORDER.compare(lhs.getAppName(), rhs.getAppName()));
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && Utils.getBoolean("sort_size", false, context)) {
-                Collections.sort(mData, Comparator.comparingLong(RecycleViewItem::getAPKSize));
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && Utils.getBoolean("sort_installed", false, context)) {
-                Collections.sort(mData, Comparator.comparingLong(RecycleViewItem::getInstalledTime));
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && Utils.getBoolean("sort_updated", false, context)) {
-                Collections.sort(mData, Comparator.comparingLong(RecycleViewItem::getUpdatedTime));
-            } else {
-                Collections.sort(mData, (lhs, rhs) -> String.CASE_INSENSITIVE_ORDER.compare(lhs.getPackageName(), rhs.getPackageName()));
+        } while (!PackageRepository.publish(base, mData));
+    }
+
+    public static RecycleViewItem getItem(String packageName, Context context) {
+        try {
+            PackageSource source = getSource(context);
+            return getItem(source.getPackageInfo(packageName, 0), source);
+        } catch (PackageManager.NameNotFoundException ignored) {
+        }
+        return null;
+    }
+
+    /*
+     * The filtered and sorted list for the current settings. Derived once per inventory version and
+     * settings, asking again (e.g. from another screen or a menu) returns the same list.
+     */
+    public static List<RecycleViewItem> getData(Context context) {
+        Settings settings = Settings.get(context);
+        int userId = UserProfiles.getSelectedUserId(context);
+        PackageRepository.Inventory inventory = userId >= 0 ? UserProfiles.getInventory(userId) : null;
+        if (inventory == null) {
+            inventory = PackageRepository.get();
+        }
+        int appTypes = settings.getAppTypes(), mode = settings.getSortMode();
+        boolean reverse = settings.isReverseOrder(), fuzzy = settings.isFuzzySearch();
+        // Read once, the search text may change while the query runs
+        String searchText = Common.getSearchText();
+        if (inventory.isPublished() && (mode == PackageColumns.SORT_FOOTPRINT || InventoryQuery.isQuery(searchText)
+                && InventoryQuery.parse(searchText, context).usesFootprints())) {
+            FootprintCache.refresh(context);
+        }
+        String key = inventory.getVersion() + "/" + appTypes + "/" + mode + "/" + reverse + "/" + fuzzy + "/" + searchText;
+        synchronized (PackageData.class) {
+            if (key.equals(mViewKey)) {
+                return mView;
             }
         }
-        if (Utils.getBoolean("reverse_order", false, context)) {
-            Collections.reverse(mData);
+        List<RecycleViewItem> mData = getData(inventory, appTypes, mode, reverse, fuzzy, searchText, context);
+        synchronized (PackageData.class) {
+            mView = mData;
+            mViewKey = key;
         }
         return mData;
     }
 
+    private static List<RecycleViewItem> getData(PackageRepository.Inventory inventory, int appTypes, int mode,
+                                                 boolean reverse, boolean fuzzy, String searchText, Context context) {
+        PackageColumns mColumns = PackageColumns.of(inventory);
+        int mask = 0, value = 0;
+        if (appTypes == Settings.APPS_SYSTEM) {
+            mask = value = PackageColumns.FLAG_SYSTEM;
+        } else if (appTypes == Settings.APPS_USER) {
+            mask = PackageColumns.FLAG_SYSTEM;
+        }
+        int[] mIndex = new int[mColumns.size()];
+        if (InventoryQuery.isQuery(searchText)) {
+            int count = InventoryQuery.parse(searchText, context).filter(mColumns, mIndex, mode, mask, value);
+            return mColumns.view(mIndex, count, reverse);
+        } else if (searchText != null && fuzzy) {
+            // Ranked by relevance, the sort order only breaks ties
+            int count = mColumns.fuzzyFilter(mIndex, mode, mask, value, searchText);
+            return mColumns.view(mIndex, count, false);
+        }
+        int count = mColumns.filter(mIndex, mode, mask, value, searchText);
+        return mColumns.view(mIndex, count, reverse);
+    }
+
     public static PackageManager getPackageManager(Context context) {
         return context.getApplicationContext().getPackageManager();
     }
 
+    // What the inventory is built from, PackageManager unless another source was set
+    public static PackageSource getSource(Context context) {
+        PackageSource source = mSource;
+        if (source == null) {
+            source = new PackageManagerSource(getPackageManager(context));
+            mSource = source;
+        }
+        return source;
+    }
+
+    // Null goes back to PackageManager. Takes effect with the next scan, see PackageScanner
+    public static void setSource(PackageSource source) {
+        mSource = source;
+    }
+
     public static PackageInfo getPackageInfo(String packageName, Context context) {
         try {
             return context.getPackageManager().getPackageInfo(packageName, PackageManager.GET_PERMISSIONS);
@@ -114,9 +208,24 @@ public class PackageData {
         return null;
     }
 
+    // Taken from the inventory if the package is part of it, otherwise from the label cache
     public static String getAppName(String packageName, Context context) {
-        return getPackageManager(context).getApplicationLabel(Objects.requireNonNull(getAppInfo(
-                packageName, context))) + (isEnabled(packageName, context) ? "" : " (Disabled)");
+        RecycleViewItem item = PackageRepository.get().getItem(packageName);
+        if (item != null && item.isResolved()) {
+            return item.getAppName();
+        }
+        PackageSource source = getSource(context);
+        PackageInfo packageInfo = null;
+        try {
+            packageInfo = source.getPackageInfo(packageName, 0);
+        } catch (PackageManager.NameNotFoundException ignored) {
+        }
+        Objects.requireNonNull(packageInfo);
+        return getAppName(packageInfo.applicationInfo, packageInfo.lastUpdateTime, source);
+    }
+
+    private static String getAppName(ApplicationInfo appInfo, long updatedTime, PackageSource source) {
+        return LabelCache.getLabel(appInfo, updatedTime, source) + (appInfo.enabled ? "" : " (Disabled)");
     }
 
     public static Drawable getAppIcon(String packageName, Context context) {
@@ -161,6 +270,14 @@ public class PackageData {
         return DateFormat.getDateTimeInstance().format(Objects.requireNonNull(getPackageInfo(packageName, context)).lastUpdateTime);
     }
 
+    public static long getUpdatedTime(String packageName, Context context) {
+        try {
+            return getPackageManager(context).getPackageInfo(packageName, 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException ignored) {
+        }
+        return 0;
+    }
+
     public static boolean isEnabled(String packageName, Context context) {
         return Objects.requireNonNull(getAppInfo(packageName, context)).enabled;
     }
@@ -215,31 +332,24 @@ public class PackageData {
     }
 
     public static String getAPKSize(String path) {
-        long size = new File(path).length() / 1024;
-        long decimal = (size - 1024) / 1024;
-        if (size > 1024) {
-            return size / 1024 + "." + decimal + " MB";
-        } else {
-            return size  + " KB";
-        }
+        return formatSize(new File(path).length());
     }
 
-    public static String getBundleSize(String path) {
-        long size = 0;
-        for (String mSplit : SplitAPKInstaller.splitApks(path)) {
-            size += new File(path, mSplit).length() / 1024;
-        }
-        long decimal = (size - 1024) / 1024;
-        if (size > 1024) {
-            return size / 1024 + "." + decimal + " MB";
-        } else {
-            return size  + " KB";
+    // Sizes are added up in bytes and only rounded here
+    public static String formatSize(long bytes) {
+        if (bytes >= 1024L * 1024 * 1024) {
+            return String.format(Locale.getDefault(), "%.2f GB", bytes / (1024.0 * 1024 * 1024));
+        } else if (bytes >= 1024 * 1024) {
+            return String.format(Locale.getDefault(), "%.2f MB", bytes / (1024.0 * 1024));
+        } else if (bytes >= 1024) {
+            return String.format(Locale.getDefault(), "%.2f KB", bytes / 1024.0);
         }
+        return bytes + " B";
     }
 
     public static String showBatchList() {
         StringBuilder sb = new StringBuilder();
-        for (String s : Common.getBatchList()) {
+        for (String s : Common.getBatchList().getSnapshot()) {
             if (s != null && !s.isEmpty())
                 sb.append(" - ").append(s.replaceAll(","," ")).append("\n");
         }
@@ -247,11 +357,160 @@ public class PackageData {
     }
 
     public static List<RecycleViewItem> getRawData() {
-        return mRawData;
+        return PackageRepository.get().getItems();
+    }
+
+    public static int getPMCalls() {
+        return PackageScanner.getPMCalls();
+    }
+
+    // Phase one of a progressive load, see PackageResolver
+    public static void setQuickRawData(Context context) {
+        LabelCache.load(context);
+        PackageRepository.publish(PackageScanner.scanQuick(context));
     }
 
-    public static void setRawData(Context context) {
-        mRawData = getRawData(context);
+    /*
+     * Loads the inventory saved by the previous session. Icons are not part of the snapshot, they are
+     * loaded on demand by IconCache.
+     */
+    public static boolean loadSnapshot(Context context) {
+        List<RecycleViewItem> mData = PackageSnapshot.read(context);
+        if (mData == null) {
+            return false;
+        }
+        // Labels of another language are shown until PackageResolver replaced them
+        if (!LabelCache.load(context)) {
+            for (int i = 0; i < mData.size(); i++) {
+                mData.set(i, mData.get(i).unresolved());
+            }
+        }
+        PackageRepository.publish(mData);
+        return true;
+    }
+
+    public static void reconcileRawData(Context context) {
+        Context mContext = context.getApplicationContext();
+        new AsyncTasks() {
+            private List<RecycleViewItem> mData;
+
+            @Override
+            public void onPreExecute() {
+            }
+
+            @Override
+            public void doInBackground() {
+                // Scanned again (mostly from the cache) if a broadcast patched the inventory meanwhile
+                PackageRepository.Inventory base;
+                do {
+                    base = PackageRepository.get();
+                    Map<String, RecycleViewItem> mCached = new HashMap<>();
+                    if (base.isLoaded()) {
+                        for (RecycleViewItem item : base.getItems()) {
+                            mCached.put(item.getPackageName(), item);
+                        }
+                    }
+                    mData = PackageScanner.scan(mContext, mCached);
+                } while (!PackageRepository.publish(base, mData));
+                PackageSnapshot.write(mData, mContext);
+                LabelCache.save(mContext);
+            }
+
+            @Override
+            public void onPostExecute() {
+            }
+        }.execute();
+    }
+
+    /*
+     * Re-resolves only the given packages and patches them into the inventory. Packages which are
+     * no longer installed are dropped and new ones are appended.
+     */
+    public static void updateRawData(Collection<String> packages, Context context) {
+        if (!PackageRepository.get().isLoaded()) return;
+        Context mContext = context.getApplicationContext();
+        new AsyncTasks() {
+            private final Map<String, RecycleViewItem> mUpdated = new HashMap<>();
+            private List<RecycleViewItem> mData;
+
+            @Override
+            public void onPreExecute() {
+            }
+
+            @Override
+            public void doInBackground() {
+                for (String packageName : packages) {
+                    IconCache.invalidate(packageName, mContext);
+                    LabelCache.invalidate(packageName);
+                    FootprintCache.invalidate(packageName);
+                    mUpdated.put(packageName, getItem(packageName, mContext));
+                }
+                // Patched copy-on-write, again on top of whatever another writer published first
+                PackageRepository.Inventory base;
+                do {
+                    base = PackageRepository.get();
+                    Map<String, RecycleViewItem> mPending = new HashMap<>(mUpdated);
+                    mData = new ArrayList<>(base.getItems().size() + mPending.size());
+                    for (RecycleViewItem item : base.getItems()) {
+                        if (!mPending.containsKey(item.getPackageName())) {
+                            mData.add(item);
+                        } else if (mPending.get(item.getPackageName()) != null) {
+                            mData.add(mPending.remove(item.getPackageName()));
+                        }
+                    }
+                    // Whatever is left over was not part of the inventory yet
+                    for (RecycleViewItem item : mPending.values()) {
+                        if (item != null) {
+                            mData.add(item);
+                        }
+                    }
+                } while (!PackageRepository.publish(base, mData));
+                PackageSnapshot.write(mData, mContext);
+                LabelCache.save(mContext);
+            }
+
+            @Override
+            public void onPostExecute() {
+            }
+        }.execute();
+    }
+
+    // Called by LabelCache once the app language changed, every row is labelled again by PackageResolver
+    static void relabel(Context context) {
+        PackageRepository.Inventory base;
+        List<RecycleViewItem> mData;
+        do {
+            base = PackageRepository.get();
+            if (!base.isLoaded()) return;
+            mData = new ArrayList<>(base.getItems().size());
+            for (RecycleViewItem item : base.getItems()) {
+                mData.add(item.unresolved());
+            }
+        } while (!PackageRepository.publish(base, mData));
+        PackageResolver.start(context);
+    }
+
+    /*
+     * Called once PackageResolver replaced all placeholder labels, so that the snapshot holds the real
+     * labels.
+     */
+    static void onRawDataResolved(Context context) {
+        List<RecycleViewItem> mData = PackageRepository.get().getItems();
+        new AsyncTasks() {
+            @Override
+            public void onPreExecute() {
+            }
+
+            @Override
+            public void doInBackground() {
+                PackageSnapshot.write(mData, context);
+                LabelCache.save(context);
+            }
+
+            @Override
+            public void onPostExecute() {
+            }
+        }.execute();
     }
 
 }
\ No newline at end of file
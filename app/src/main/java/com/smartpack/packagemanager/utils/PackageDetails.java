@@ -51,7 +51,7 @@ public class PackageDetails {
             ActivityCompat.requestPermissions(activity, new String[]{
                     Manifest.permission.WRITE_EXTERNAL_STORAGE}, 1);
             Utils.snackbar(activity.findViewById(android.R.id.content), activity.getString(R.string.permission_denied_write_storage));
-        } else if (new File(PackageData.getSourceDir(Common.getApplicationID(), activity)).getName().equals("base.apk") && SplitAPKInstaller.splitApks(PackageData.getParentDir(Common.getApplicationID(), activity)).size() > 1) {
+        } else if (SplitInventory.of(Common.getApplicationID(), activity).isBundle()) {
             exportingBundleTask(linearLayout, textView, PackageData.getParentDir(Common.getApplicationID(), activity), PackageData.getFileName(Common.getApplicationID(), activity),
                     Common.getApplicationIcon(), activity);
         } else {
@@ -198,12 +198,11 @@ public class PackageDetails {
                         @Override
                         public void doInBackground() {
                             Utils.sleep(1);
-                            Utils.runCommand("pm uninstall --user 0 " + Common.getApplicationID());
+                            Utils.runCommand("pm uninstall --user " + UserProfiles.getShownUserId(activity) + " " + Common.getApplicationID());
                         }
 
                         @Override
                         public void onPostExecute() {
-                            PackageData.setRawData(activity);
                             hideProgress(linearLayout, textView);
                             activity.finish();
                             Common.reloadPage(true);
@@ -215,7 +214,7 @@ public class PackageDetails {
                     .setIcon(Common.getApplicationIcon())
                     .setTitle(activity.getString(R.string.uninstall_adb))
                     .setMessage(activity.getString(R.string.uninstall_adb_summary, Common.getApplicationName()) +
-                            "\n\nadb shell pm uninstall -k --user 0 " + Common.getApplicationID())
+                            "\n\nadb shell pm uninstall -k --user " + UserProfiles.getShownUserId(activity) + " " + Common.getApplicationID())
                     .setNegativeButton(activity.getString(R.string.documentation), (dialog, id) ->
                             Utils.launchUrl("https://smartpack.github.io/adb-debloating/", activity))
                     .setPositiveButton(activity.getString(R.string.got_it), (dialog, id) -> {
@@ -284,20 +283,19 @@ public class PackageDetails {
             obj.put("Package Name", packageName);
             obj.put("Version", PackageData.getVersionName(PackageData.getSourceDir(packageName, context), context));
             obj.put("Google Play", "https://play.google.com/store/apps/details?id=" + packageName);
-            if (new File(PackageData.getSourceDir(packageName, context)).getName().equals("base.apk") && SplitAPKInstaller
-                    .splitApks(PackageData.getParentDir(packageName, context)).size() > 1) {
+            SplitInventory mSplits = SplitInventory.of(packageName, context);
+            if (mSplits.isBundle()) {
                 obj.put("App Bundle", true);
-                obj.put("Bundle Size", PackageData.getBundleSize(PackageData.getParentDir(packageName, context)));
+                obj.put("Bundle Size", PackageData.formatSize(mSplits.getTotalSize()));
                 JSONArray apks = new JSONArray();
-                for (String apk : SplitAPKInstaller
-                        .splitApks(PackageData.getParentDir(packageName, context))) {
+                for (String apk : mSplits.getNames()) {
                     apks.put(apk);
                 }
                 obj.put("Split APKs", apks);
 
             } else {
                 obj.put("App Bundle", false);
-                obj.put("APK Size", PackageData.getAPKSize(PackageData.getSourceDir(packageName ,context)));
+                obj.put("APK Size", PackageData.formatSize(mSplits.getTotalSize()));
             }
             obj.put("Installed", PackageData.getInstalledDate(packageName, context));
             obj.put("Last updated", PackageData.getUpdatedDate(packageName, context));
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import java.util.List;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ */
+public class PackageManagerSource implements PackageSource {
+
+    private final PackageManager mPM;
+
+    public PackageManagerSource(PackageManager pm) {
+        this.mPM = pm;
+    }
+
+    @Override
+    public List<PackageInfo> getInstalledPackages(int flags) {
+        return mPM.getInstalledPackages(flags);
+    }
+
+    @Override
+    public PackageInfo getPackageInfo(String packageName, int flags) throws PackageManager.NameNotFoundException {
+        return mPM.getPackageInfo(packageName, flags);
+    }
+
+    @Override
+    public ApplicationInfo getApplicationInfo(String packageName, int flags) throws PackageManager.NameNotFoundException {
+        return mPM.getApplicationInfo(packageName, flags);
+    }
+
+    @Override
+    public String getLabel(ApplicationInfo appInfo) {
+        return mPM.getApplicationLabel(appInfo).toString();
+    }
+
+    @Override
+    public long getAPKSize(ApplicationInfo appInfo, long updatedTime) {
+        return SplitInventory.of(appInfo, updatedTime).getTotalSize();
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ */
+public class PackageReceiver extends BroadcastReceiver {
+
+    // Events arriving within this window (e.g. during a batch uninstall) are applied as a single update
+    private static final long COALESCE_DELAY = 500;
+
+    private static PackageReceiver mReceiver = null;
+
+    private final Context mContext;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Set<String> mPending = new HashSet<>();
+    private final Runnable mFlush = this::flush;
+
+    private PackageReceiver(Context context) {
+        this.mContext = context;
+    }
+
+    /*
+     * Package broadcasts are not delivered to manifest receivers since Android 8.0, so the receiver is
+     * registered at runtime and lives as long as the process.
+     */
+    public static void register(Context context) {
+        if (mReceiver != null) return;
+        mReceiver = new PackageReceiver(context.getApplicationContext());
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addDataScheme("package");
+        mReceiver.mContext.registerReceiver(mReceiver, filter);
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        Uri data = intent.getData();
+        if (data == null || data.getSchemeSpecificPart() == null) return;
+        // Rows of removed packages are greyed out right away, the inventory follows with the flush
+        if (!intent.getBooleanExtra(Intent.EXTRA_REPLACING, false)) {
+            if (Intent.ACTION_PACKAGE_REMOVED.equals(intent.getAction())) {
+                InstalledState.setInstalled(data.getSchemeSpecificPart(), false);
+                SplitInventory.invalidate(data.getSchemeSpecificPart());
+            } else if (Intent.ACTION_PACKAGE_ADDED.equals(intent.getAction())) {
+                InstalledState.setInstalled(data.getSchemeSpecificPart(), true);
+            }
+        }
+        mPending.add(data.getSchemeSpecificPart());
+        mHandler.removeCallbacks(mFlush);
+        mHandler.postDelayed(mFlush, COALESCE_DELAY);
+    }
+
+    private void flush() {
+        if (mPending.isEmpty()) return;
+        Set<String> packages = new HashSet<>(mPending);
+        mPending.clear();
+        PackageData.updateRawData(packages, mContext);
+        // Installs and removals for other users show up here as well
+        if (UserProfiles.isMultiUser()) {
+            UserProfiles.load(mContext);
+        }
+    }
+
+}
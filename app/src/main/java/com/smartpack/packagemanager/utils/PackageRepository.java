@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Holds the package inventory as immutable, numbered snapshots. Readers take the current snapshot
+ * without locking and keep a consistent list for as long as they need it, writers build a new list
+ * and swap it in. Screens observe the stream and are handed each new snapshot while they are visible.
+ */
+public class PackageRepository {
+
+    // Latest search index of the published inventories, the next version derives its own from it
+    private static final AtomicReference<SearchIndex> mSearchIndex = new AtomicReference<>(SearchIndex.EMPTY);
+    private static final AtomicReference<Inventory> mCurrent = new AtomicReference<>(new Inventory(null, 0, true, mSearchIndex));
+    private static final MutableLiveData<Inventory> mStream = new MutableLiveData<>();
+    // Shared with the inventories of other users, a version identifies one list across all of them
+    private static final AtomicLong mVersions = new AtomicLong();
+
+    public static class Inventory {
+        private final List<RecycleViewItem> mItems;
+        private final long mVersion;
+        private final boolean mPublished;
+        private final AtomicReference<SearchIndex> mSearchIndex;
+        // Built on the first lookup by package name
+        private volatile Map<String, RecycleViewItem> mIndex = null;
+        // Built on first use, see PackageColumns.of()
+        private PackageColumns mColumns = null;
+
+        private Inventory(List<RecycleViewItem> items, long version, boolean published,
+                          AtomicReference<SearchIndex> searchIndex) {
+            this.mItems = items;
+            this.mVersion = version;
+            this.mPublished = published;
+            this.mSearchIndex = searchIndex;
+        }
+
+        // Unmodifiable, null until the first inventory is published
+        public List<RecycleViewItem> getItems() {
+            return mItems;
+        }
+
+        public long getVersion() {
+            return mVersion;
+        }
+
+        // The packages of this user, as opposed to an inventory of another user
+        public boolean isPublished() {
+            return mPublished;
+        }
+
+        synchronized PackageColumns getColumns() {
+            if (mColumns == null) {
+                mColumns = new PackageColumns(this);
+            }
+            return mColumns;
+        }
+
+        // Derived from the latest index of the inventories this one belongs to
+        SearchIndex getSearchIndex(RecycleViewItem[] items) {
+            SearchIndex index = mSearchIndex.get().update(items);
+            mSearchIndex.set(index);
+            return index;
+        }
+
+        public boolean isLoaded() {
+            return mItems != null;
+        }
+
+        public RecycleViewItem getItem(String packageName) {
+            if (mItems == null) return null;
+            Map<String, RecycleViewItem> index = mIndex;
+            if (index == null) {
+                index = new HashMap<>(mItems.size() * 2);
+                for (RecycleViewItem item : mItems) {
+                    index.put(item.getPackageName(), item);
+                }
+                mIndex = index;
+            }
+            return index.get(packageName);
+        }
+    }
+
+    public static Inventory get() {
+        return mCurrent.get();
+    }
+
+    public static LiveData<Inventory> getStream() {
+        return mStream;
+    }
+
+    private static List<RecycleViewItem> copyOf(List<RecycleViewItem> items) {
+        return Collections.unmodifiableList(new ArrayList<>(items));
+    }
+
+    // An inventory which is not published, e.g. the packages of another user
+    static Inventory create(List<RecycleViewItem> items) {
+        return new Inventory(copyOf(items), mVersions.incrementAndGet(), false, new AtomicReference<>(SearchIndex.EMPTY));
+    }
+
+    // Replaces the inventory no matter what was published meanwhile
+    static Inventory publish(List<RecycleViewItem> items) {
+        List<RecycleViewItem> mItems = copyOf(items);
+        while (true) {
+            Inventory base = mCurrent.get();
+            Inventory inventory = new Inventory(mItems, mVersions.incrementAndGet(), true, mSearchIndex);
+            if (mCurrent.compareAndSet(base, inventory)) {
+                mStream.postValue(inventory);
+                return inventory;
+            }
+        }
+    }
+
+    /*
+     * Replaces the inventory only if base is still the current one. Returns false if another writer
+     * came first, the caller then derives its list from the new snapshot and tries again.
+     */
+    static boolean publish(Inventory base, List<RecycleViewItem> items) {
+        Inventory inventory = new Inventory(copyOf(items), mVersions.incrementAndGet(), true, mSearchIndex);
+        if (mCurrent.compareAndSet(base, inventory)) {
+            mStream.postValue(inventory);
+            return true;
+        }
+        return false;
+    }
+
+    // Same items under a new version, for changes made to the items themselves (resolved labels)
+    static Inventory republish() {
+        while (true) {
+            Inventory base = mCurrent.get();
+            Inventory inventory = new Inventory(base.mItems, mVersions.incrementAndGet(), true, mSearchIndex);
+            if (mCurrent.compareAndSet(base, inventory)) {
+                mStream.postValue(inventory);
+                return inventory;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Phase two of a progressive load: resolves labels and sizes which a quick scan left out, rows
+ * currently on screen first. Icons are left to IconCache.
+ */
+public class PackageResolver {
+
+    // Rows resolved before the first publish, the batch doubles after each one
+    private static final int FIRST_BATCH = 32;
+
+    private static final AtomicBoolean mRunning = new AtomicBoolean();
+    private static final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler mHandler = new Handler(Looper.getMainLooper());
+    private static volatile List<RecycleViewItem> mVisible = new ArrayList<>();
+
+    // Called from the UI thread whenever the visible rows change
+    public static void setVisible(List<RecycleViewItem> items) {
+        mVisible = new ArrayList<>(items);
+    }
+
+    /*
+     * Pending rows of the current inventory, those on screen first. Visible rows of an older inventory
+     * version are still matched by their package.
+     */
+    private static List<RecycleViewItem> getPending(PackageRepository.Inventory inventory, int limit) {
+        List<RecycleViewItem> mPending = new ArrayList<>();
+        Set<String> mPackages = new HashSet<>();
+        for (RecycleViewItem visible : mVisible) {
+            RecycleViewItem item = inventory.getItem(visible.getPackageName());
+            if (item != null && !item.isResolved() && mPackages.add(item.getPackageName())) {
+                mPending.add(item);
+            }
+        }
+        for (RecycleViewItem item : inventory.getItems()) {
+            if (mPending.size() >= limit) break;
+            if (!item.isResolved() && mPackages.add(item.getPackageName())) {
+                mPending.add(item);
+            }
+        }
+        return mPending;
+    }
+
+    /*
+     * Resolved rows replace their placeholders batch by batch, each batch as a new inventory version
+     * which the list picks up like any other.
+     */
+    public static void start(Context context) {
+        if (!mRunning.compareAndSet(false, true)) return;
+        Context mContext = context.getApplicationContext();
+        mExecutor.execute(() -> {
+            boolean resolved = false;
+            int batch = FIRST_BATCH;
+            while (true) {
+                PackageRepository.Inventory inventory = PackageRepository.get();
+                if (!inventory.isLoaded()) break;
+                List<RecycleViewItem> mPending = getPending(inventory, batch);
+                if (mPending.isEmpty()) break;
+                // Looked up in parallel on the pool of PackageScanner
+                PackageData.replaceItems(PackageScanner.resolve(mPending, mContext));
+                resolved = true;
+                batch *= 2;
+            }
+            boolean mResolvedAny = resolved;
+            mHandler.post(() -> {
+                mRunning.set(false);
+                // Relabelled while this run was finishing
+                PackageRepository.Inventory inventory = PackageRepository.get();
+                if (inventory.isLoaded() && !getPending(inventory, 1).isEmpty()) {
+                    start(mContext);
+                } else if (mResolvedAny) {
+                    PackageData.onRawDataResolved(mContext);
+                }
+            });
+        });
+    }
+
+}
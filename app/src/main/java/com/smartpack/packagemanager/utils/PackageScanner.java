@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ */
+public class PackageScanner {
+
+    private static final String TAG = "PackageScanner";
+
+    // Number of packages resolved by a single task before it stops splitting
+    private static final int CHUNK_SIZE = 16;
+
+    // PackageManager calls made by the last scan
+    private static final AtomicInteger mPMCalls = new AtomicInteger();
+    private static ForkJoinPool mPool = null;
+    // Kept from a quick scan until PackageResolver took care of the package
+    private static final Map<String, ApplicationInfo> mAppInfos = new ConcurrentHashMap<>();
+
+    public static int getParallelism(Context context) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = Utils.getInt("scan_threads", 0, context);
+        return threads > 0 ? Math.min(threads, cores) : cores;
+    }
+
+    /*
+     * Shared by scans and PackageResolver. Replaced if the number of threads was changed, the workers
+     * of the previous pool time out on their own.
+     */
+    private static synchronized ForkJoinPool getPool(Context context) {
+        int parallelism = getParallelism(context);
+        if (mPool == null || mPool.getParallelism() != parallelism) {
+            mPool = new ForkJoinPool(parallelism);
+        }
+        return mPool;
+    }
+
+    /*
+     * Phase one of a progressive load: only the package query itself, labels and sizes are left to
+     * PackageResolver.
+     */
+    public static List<RecycleViewItem> scanQuick(Context context) {
+        PackageSource source = PackageData.getSource(context);
+        long start = SystemClock.elapsedRealtime();
+        List<PackageInfo> packages = source.getInstalledPackages(0);
+        List<RecycleViewItem> mData = new ArrayList<>(packages.size());
+        for (PackageInfo packageInfo : packages) {
+            if (packageInfo.applicationInfo == null) continue;
+            mAppInfos.put(packageInfo.packageName, packageInfo.applicationInfo);
+            mData.add(PackageData.getPlaceholderItem(packageInfo));
+        }
+        Log.d(TAG, "Listed " + mData.size() + " packages in " + (SystemClock.elapsedRealtime() - start) + " ms");
+        return mData;
+    }
+
+    /*
+     * Packages found in cached with an unchanged update time and state are reused as such. Everything
+     * else is resolved from scratch. Icons are never loaded here, see IconCache.
+     */
+    public static List<RecycleViewItem> scan(Context context, Map<String, RecycleViewItem> cached) {
+        AtomicInteger calls = new AtomicInteger();
+        PackageSource source = new CountingSource(PackageData.getSource(context), calls);
+        ForkJoinPool pool = getPool(context);
+
+        long start = SystemClock.elapsedRealtime();
+        List<PackageInfo> packages = source.getInstalledPackages(0);
+        long fetched = SystemClock.elapsedRealtime();
+
+        // Every chunk writes into its own slots, so the output keeps the order of the input list
+        RecycleViewItem[] items = new RecycleViewItem[packages.size()];
+        AtomicInteger reused = new AtomicInteger();
+        pool.invoke(new ChunkTask(i -> {
+            PackageInfo packageInfo = packages.get(i);
+            if (packageInfo.applicationInfo == null) return;
+            RecycleViewItem item = cached != null ? cached.get(packageInfo.packageName) : null;
+            if (item != null && item.isResolved() && item.getUpdatedTime() == packageInfo.lastUpdateTime
+                    && item.isEnabled() == packageInfo.applicationInfo.enabled) {
+                items[i] = item;
+                reused.incrementAndGet();
+            } else {
+                items[i] = PackageData.getItem(packageInfo, source);
+            }
+        }, 0, packages.size()));
+        long resolved = SystemClock.elapsedRealtime();
+
+        List<RecycleViewItem> mData = new ArrayList<>(items.length);
+        for (RecycleViewItem item : items) {
+            if (item != null) {
+                mData.add(item);
+            }
+        }
+        long merged = SystemClock.elapsedRealtime();
+
+        mPMCalls.set(calls.get());
+        Log.d(TAG, "Scanned " + mData.size() + " packages on " + pool.getParallelism() + " threads in " + (merged - start)
+                + " ms (fetch: " + (fetched - start) + " ms, resolve: " + (resolved - fetched) + " ms, merge: "
+                + (merged - resolved) + " ms) using " + calls.get() + " PackageManager calls, " + reused.get()
+                + " packages reused from the snapshot");
+        return mData;
+    }
+
+    /*
+     * Phase two of a progressive load, see PackageResolver. Returns the resolved replacement of each
+     * of the given items.
+     */
+    static Map<RecycleViewItem, RecycleViewItem> resolve(List<RecycleViewItem> items, Context context) {
+        PackageSource source = PackageData.getSource(context);
+        RecycleViewItem[] resolved = new RecycleViewItem[items.size()];
+        getPool(context).invoke(new ChunkTask(i -> resolved[i] = PackageData.resolveItem(items.get(i), source),
+                0, items.size()));
+        Map<RecycleViewItem, RecycleViewItem> mResolved = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < resolved.length; i++) {
+            mResolved.put(items.get(i), resolved[i]);
+        }
+        return mResolved;
+    }
+
+    // Null if the package was not listed by a quick scan, or has been resolved since
+    static ApplicationInfo takeAppInfo(String packageName) {
+        return mAppInfos.remove(packageName);
+    }
+
+    public static int getPMCalls() {
+        return mPMCalls.get();
+    }
+
+    // Counts the calls which reach PackageManager, labels served by LabelCache never get here
+    private static class CountingSource implements PackageSource {
+        private final AtomicInteger mCalls;
+        private final PackageSource mSource;
+
+        private CountingSource(PackageSource source, AtomicInteger calls) {
+            this.mSource = source;
+            this.mCalls = calls;
+        }
+
+        @Override
+        public List<PackageInfo> getInstalledPackages(int flags) {
+            mCalls.incrementAndGet();
+            return mSource.getInstalledPackages(flags);
+        }
+
+        @Override
+        public PackageInfo getPackageInfo(String packageName, int flags) throws PackageManager.NameNotFoundException {
+            mCalls.incrementAndGet();
+            return mSource.getPackageInfo(packageName, flags);
+        }
+
+        @Override
+        public ApplicationInfo getApplicationInfo(String packageName, int flags) throws PackageManager.NameNotFoundException {
+            mCalls.incrementAndGet();
+            return mSource.getApplicationInfo(packageName, flags);
+        }
+
+        @Override
+        public String getLabel(ApplicationInfo appInfo) {
+            mCalls.incrementAndGet();
+            return mSource.getLabel(appInfo);
+        }
+
+        // Only reads the APK files
+        @Override
+        public long getAPKSize(ApplicationInfo appInfo, long updatedTime) {
+            return mSource.getAPKSize(appInfo, updatedTime);
+        }
+    }
+
+    private interface Chunk {
+        void run(int index);
+    }
+
+    // Runs chunk for every index in [from, to), split up until CHUNK_SIZE indices are left per task
+    private static class ChunkTask extends RecursiveAction {
+        private final int mFrom, mTo;
+        private final Chunk mChunk;
+
+        private ChunkTask(Chunk chunk, int from, int to) {
+            this.mChunk = chunk;
+            this.mFrom = from;
+            this.mTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (mTo - mFrom <= CHUNK_SIZE) {
+                for (int i = mFrom; i < mTo; i++) {
+                    mChunk.run(i);
+                }
+            } else {
+                int mid = (mFrom + mTo) >>> 1;
+                invokeAll(new ChunkTask(mChunk, mFrom, mid), new ChunkTask(mChunk, mid, mTo));
+            }
+        }
+    }
+
+}
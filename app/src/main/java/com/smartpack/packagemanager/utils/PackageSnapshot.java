@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ */
+public class PackageSnapshot {
+
+    /*
+     * Layout: magic (int), version (int), entry count (int), payload length (int), payload, CRC32 of the payload (long)
+     * Entry: package name, label (unsigned short length + UTF-8 bytes each), APK size, installed time,
+     * updated time (long each) and flags (int)
+     */
+    private static final int MAGIC = 0x504D4956;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+
+    private static final int FLAG_SYSTEM = 1;
+    private static final int FLAG_ENABLED = 1 << 1;
+    private static final int FLAG_BUNDLE = 1 << 2;
+
+    private static File getFile(Context context) {
+        return new File(context.getFilesDir(), "inventory.bin");
+    }
+
+    public static List<RecycleViewItem> read(Context context) {
+        File mFile = getFile(context);
+        if (!mFile.exists() || mFile.length() < HEADER_SIZE + 8) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(mFile, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int count = buffer.getInt();
+            int length = buffer.getInt();
+            if (count < 0 || length < 0 || HEADER_SIZE + length + 8 != channel.size()) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, length);
+            if (buffer.getLong() != crc.getValue()) {
+                return null;
+            }
+
+            buffer.position(HEADER_SIZE);
+            List<RecycleViewItem> mData = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String packageName = readString(buffer);
+                String appName = readString(buffer);
+                long apkSize = buffer.getLong();
+                long installedTime = buffer.getLong();
+                long updatedTime = buffer.getLong();
+                int flags = buffer.getInt();
+                mData.add(new RecycleViewItem(packageName, appName, apkSize, installedTime,
+                        updatedTime, (flags & FLAG_SYSTEM) != 0, (flags & FLAG_ENABLED) != 0,
+                        (flags & FLAG_BUNDLE) != 0));
+            }
+            return mData;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException ignored) {
+        }
+        return null;
+    }
+
+    // Several writers may finish at the same time, they take turns with the temporary file
+    public static synchronized void write(List<RecycleViewItem> data, Context context) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(data.size() * 96);
+            DataOutputStream out = new DataOutputStream(payload);
+            int count = 0;
+            for (RecycleViewItem item : data) {
+                // Placeholders of a quick scan are left out and get resolved again on the next start
+                if (!item.isResolved()) continue;
+                count++;
+                writeString(out, item.getPackageName());
+                writeString(out, item.getAppName());
+                out.writeLong(item.getAPKSize());
+                out.writeLong(item.getInstalledTime());
+                out.writeLong(item.getUpdatedTime());
+                out.writeInt((item.isSystemApp() ? FLAG_SYSTEM : 0) | (item.isEnabled() ? FLAG_ENABLED : 0)
+                        | (item.isBundle() ? FLAG_BUNDLE : 0));
+            }
+            out.flush();
+            byte[] bytes = payload.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+
+            // Write into a temporary file first, so that an interrupted write never replaces a valid snapshot
+            File mTemp = new File(context.getFilesDir(), "inventory.bin.tmp");
+            try (DataOutputStream file = new DataOutputStream(new FileOutputStream(mTemp))) {
+                file.writeInt(MAGIC);
+                file.writeInt(VERSION);
+                file.writeInt(count);
+                file.writeInt(bytes.length);
+                file.write(bytes);
+                file.writeLong(crc.getValue());
+            }
+            if (!mTemp.renameTo(getFile(context))) {
+                mTemp.delete();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+    }
+
+}
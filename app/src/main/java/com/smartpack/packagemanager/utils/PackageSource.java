@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import java.util.List;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Where the inventory gets its packages from. PackageManager unless replaced with PackageData.setSource(),
+ * e.g. by a SyntheticPackageSource to load, search and sort thousands of packages off the device.
+ */
+public interface PackageSource {
+
+    List<PackageInfo> getInstalledPackages(int flags);
+
+    PackageInfo getPackageInfo(String packageName, int flags) throws PackageManager.NameNotFoundException;
+
+    ApplicationInfo getApplicationInfo(String packageName, int flags) throws PackageManager.NameNotFoundException;
+
+    String getLabel(ApplicationInfo appInfo);
+
+    // Size of the base and all split APKs in bytes
+    long getAPKSize(ApplicationInfo appInfo, long updatedTime);
+
+}
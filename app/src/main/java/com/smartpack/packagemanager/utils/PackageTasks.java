@@ -10,6 +10,7 @@ package com.smartpack.packagemanager.utils;
 
 import android.annotation.SuppressLint;
 import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
 
 import com.smartpack.packagemanager.R;
@@ -25,6 +26,21 @@ import java.util.List;
 
 public class PackageTasks {
 
+    // Names the user an operation ran for, unless it only ran for this one
+    private static String getUserSuffix(int userId, List<Integer> users) {
+        return users.size() > 1 || userId != UserProfiles.getOwnUserId() ? " (" + userId + ")" : "";
+    }
+
+    // Label of packageName as listed for userId, the package id once it is gone there
+    private static String getAppName(int userId, String packageName, Context context) {
+        if (userId == UserProfiles.getOwnUserId()) {
+            return InstalledState.isInstalled(packageName) ? PackageData.getAppName(packageName, context) : packageName;
+        }
+        PackageRepository.Inventory inventory = UserProfiles.getInventory(userId);
+        RecycleViewItem item = inventory != null ? inventory.getItem(packageName) : null;
+        return item != null && item.isResolved() ? item.getAppName() : packageName;
+    }
+
     public static void batchDisableTask(Activity activity) {
         new AsyncTasks() {
 
@@ -43,21 +59,23 @@ public class PackageTasks {
             @SuppressLint("StringFormatInvalid")
             @Override
             public void doInBackground() {
-                for (String packageID : Common.getBatchList()) {
+                List<Integer> mUsers = UserProfiles.getTargetUsers(activity);
+                for (String packageID : Common.getBatchList().getSnapshot()) {
                     if (packageID.contains(".")) {
                         if (packageID.equals(activity.getPackageName())) {
                             Common.getOutput().append("** ").append(activity.getString(R.string.disabling, PackageData.getAppName(packageID, activity)));
                             Common.getOutput().append(": ").append(activity.getString(R.string.uninstall_nope)).append(" *\n\n");
                         } else {
-                            Common.getOutput().append(PackageData.isEnabled(packageID, activity) ? "** " +
-                                    activity.getString(R.string.disabling, PackageData.getAppName(packageID, activity)) :
-                                    "** " + activity.getString(R.string.enabling, PackageData.getAppName(packageID, activity)));
-                            if (PackageData.isEnabled(packageID, activity)) {
-                                Utils.runCommand("pm disable " + packageID);
-                            } else {
-                                Utils.runCommand("pm enable " + packageID);
+                            for (int userId : mUsers) {
+                                if (!UserProfiles.isInstalled(userId, packageID)) continue;
+                                boolean enabled = UserProfiles.isEnabled(userId, packageID, activity);
+                                Common.getOutput().append(enabled ? "** " +
+                                        activity.getString(R.string.disabling, getAppName(userId, packageID, activity)) :
+                                        "** " + activity.getString(R.string.enabling, getAppName(userId, packageID, activity)));
+                                Common.getOutput().append(getUserSuffix(userId, mUsers));
+                                Utils.runCommand((enabled ? "pm disable --user " : "pm enable --user ") + userId + " " + packageID);
+                                Common.getOutput().append(": ").append(activity.getString(R.string.done)).append(" *\n\n");
                             }
-                            Common.getOutput().append(": ").append(activity.getString(R.string.done)).append(" *\n\n");
                         }
                         Utils.sleep(1);
                     }
@@ -69,6 +87,10 @@ public class PackageTasks {
                 Common.getOutput().append("** ").append(activity.getString(R.string.everything_done)).append(" *");
                 Common.isRunning(false);
                 Common.reloadPage(true);
+                // Packages of other users are not covered by the package broadcasts of this one
+                if (UserProfiles.isMultiUser()) {
+                    UserProfiles.load(activity);
+                }
             }
         }.execute();
     }
@@ -91,15 +113,20 @@ public class PackageTasks {
             @SuppressLint("StringFormatInvalid")
             @Override
             public void doInBackground() {
-                for (String packageID : Common.getBatchList()) {
-                    if (packageID.contains(".") && Utils.isPackageInstalled(packageID, activity)) {
+                List<Integer> mUsers = UserProfiles.getTargetUsers(activity);
+                for (String packageID : Common.getBatchList().getSnapshot()) {
+                    if (packageID.contains(".")) {
                         if (packageID.equals(activity.getPackageName())) {
                             Common.getOutput().append("** ").append(activity.getString(R.string.reset_summary, PackageData.getAppName(packageID, activity)));
                             Common.getOutput().append(": ").append(activity.getString(R.string.uninstall_nope)).append(" *\n\n");
                         } else {
-                            Common.getOutput().append("** ").append(activity.getString(R.string.reset_summary, PackageData.getAppName(packageID, activity)));
-                            Utils.runCommand("pm clear " + packageID);
-                            Common.getOutput().append(": ").append(activity.getString(R.string.done)).append(" *\n\n");
+                            for (int userId : mUsers) {
+                                if (!UserProfiles.isInstalled(userId, packageID)) continue;
+                                Common.getOutput().append("** ").append(activity.getString(R.string.reset_summary, getAppName(userId, packageID, activity)));
+                                Common.getOutput().append(getUserSuffix(userId, mUsers));
+                                Utils.runCommand("pm clear --user " + userId + " " + packageID);
+                                Common.getOutput().append(": ").append(activity.getString(R.string.done)).append(" *\n\n");
+                            }
                         }
                         Utils.sleep(1);
                     }
@@ -132,13 +159,14 @@ public class PackageTasks {
             @SuppressLint("StringFormatInvalid")
             @Override
             public void doInBackground() {
-                for (String packageID : Common.getBatchList()) {
+                for (String packageID : Common.getBatchList().getSnapshot()) {
                     if (packageID.contains(".") && Utils.isPackageInstalled(packageID, activity)) {
-                        if (SplitAPKInstaller.isAppBundle(PackageData.getParentDir(packageID, activity))) {
+                        SplitInventory mSplits = SplitInventory.of(packageID, activity);
+                        if (mSplits.isBundle()) {
                             Common.getOutput().append("** ").append(activity.getString(R.string.exporting_bundle, PackageData.getAppName(packageID, activity)));
                             List<File> mFiles = new ArrayList<>();
-                            for (final String splitApps : SplitAPKInstaller.splitApks(PackageData.getParentDir(packageID, activity))) {
-                                mFiles.add(new File(PackageData.getParentDir(packageID, activity) + "/" + splitApps));
+                            for (SplitInventory.Split split : mSplits.getSplits()) {
+                                mFiles.add(new File(split.getPath()));
                             }
                             Utils.zip(PackageData.getPackageDir(activity) + "/" + PackageData.getFileName(packageID, activity) + ".apkm", mFiles);
                         } else {
@@ -177,16 +205,21 @@ public class PackageTasks {
             @SuppressLint("StringFormatInvalid")
             @Override
             public void doInBackground() {
-                for (String packageID : Common.getBatchList()) {
-                    if (packageID.contains(".") && Utils.isPackageInstalled(packageID, activity)) {
+                List<Integer> mUsers = UserProfiles.getTargetUsers(activity);
+                for (String packageID : Common.getBatchList().getSnapshot()) {
+                    if (packageID.contains(".")) {
                         if (packageID.equals(activity.getPackageName())) {
                             Common.getOutput().append("** ").append(activity.getString(R.string.uninstall_summary, PackageData.getAppName(packageID, activity)));
                             Common.getOutput().append(": ").append(activity.getString(R.string.uninstall_nope)).append(" *\n\n");
                         } else {
-                            Common.getOutput().append("** ").append(activity.getString(R.string.uninstall_summary, PackageData.getAppName(packageID, activity)));
-                            Utils.runCommand("pm uninstall --user 0 " + packageID);
-                            Common.getOutput().append(Utils.isPackageInstalled(packageID, activity) ? ": " +
-                                    activity.getString(R.string.failed) + " *\n\n" : ": " + activity.getString(R.string.done) + " *\n\n");
+                            for (int userId : mUsers) {
+                                if (!UserProfiles.isInstalled(userId, packageID)) continue;
+                                Common.getOutput().append("** ").append(activity.getString(R.string.uninstall_summary, getAppName(userId, packageID, activity)));
+                                Common.getOutput().append(getUserSuffix(userId, mUsers));
+                                String result = Utils.runAndGetOutput("pm uninstall --user " + userId + " " + packageID);
+                                Common.getOutput().append(result.contains("Success") ? ": " + activity.getString(R.string.done) +
+                                        " *\n\n" : ": " + activity.getString(R.string.failed) + " *\n\n");
+                            }
                         }
                         Utils.sleep(1);
                     }
@@ -195,10 +228,13 @@ public class PackageTasks {
 
             @Override
             public void onPostExecute() {
-                PackageData.setRawData(activity);
                 Common.getOutput().append("** ").append(activity.getString(R.string.everything_done)).append(" *");
                 Common.isRunning(false);
                 Common.reloadPage(true);
+                // Packages of other users are not covered by the package broadcasts of this one
+                if (UserProfiles.isMultiUser()) {
+                    UserProfiles.load(activity);
+                }
             }
         }.execute();
     }
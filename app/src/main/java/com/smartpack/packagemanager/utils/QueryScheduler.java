@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Runs PackageData.getData() for the package list, one query at a time. Every new query supersedes
+ * the previous ones: a query still waiting out its delay or queued is dropped, and the result of one
+ * already running is never published.
+ */
+public class QueryScheduler {
+
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private Future<?> mQuery = null;
+    private Runnable mPending = null;
+
+    public interface OnResultListener {
+        void onResult(List<RecycleViewItem> data);
+    }
+
+    // Called from the UI thread, the listener runs there as well. Does nothing once released.
+    public void schedule(Context context, long delay, OnResultListener listener) {
+        if (mExecutor.isShutdown()) return;
+        Context mContext = context.getApplicationContext();
+        int generation = mGeneration.incrementAndGet();
+        if (mPending != null) {
+            mHandler.removeCallbacks(mPending);
+        }
+        mPending = () -> {
+            mPending = null;
+            if (mQuery != null) {
+                mQuery.cancel(false);
+            }
+            mQuery = mExecutor.submit(() -> {
+                if (generation != mGeneration.get()) return;
+                List<RecycleViewItem> mData = PackageData.getData(mContext);
+                if (generation != mGeneration.get()) return;
+                mHandler.post(() -> {
+                    if (generation == mGeneration.get()) {
+                        listener.onResult(mData);
+                    }
+                });
+            });
+        };
+        if (delay > 0) {
+            mHandler.postDelayed(mPending, delay);
+        } else {
+            mPending.run();
+        }
+    }
+
+    public void cancel() {
+        mGeneration.incrementAndGet();
+        if (mPending != null) {
+            mHandler.removeCallbacks(mPending);
+            mPending = null;
+        }
+        if (mQuery != null) {
+            mQuery.cancel(false);
+        }
+    }
+
+    // No query can be scheduled afterwards
+    public void release() {
+        cancel();
+        mExecutor.shutdown();
+    }
+
+}
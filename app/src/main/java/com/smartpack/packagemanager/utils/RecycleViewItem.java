@@ -8,8 +8,6 @@
 
 package com.smartpack.packagemanager.utils;
 
-import android.graphics.drawable.Drawable;
-
 import java.io.Serializable;
 
 /*
@@ -18,18 +16,27 @@ import java.io.Serializable;
 
 public class RecycleViewItem implements Serializable {
 
-    private final Drawable mIcon;
+    // Never changed once created, resolving or relabelling a package creates a new item
+    private final boolean mBundle, mEnabled, mResolved, mSystemApp;
     private final long mAPKSize, mInstalledTime, mUpdatedTime;
-    private final String mPackageName, mAppName;
+    private final String mAppName, mPackageName;
+
+    public RecycleViewItem(String packageName, String appName, long apkSize, long installedTime,
+                           long updatedTime, boolean systemApp, boolean enabled, boolean bundle) {
+        this(packageName, appName, apkSize, installedTime, updatedTime, systemApp, enabled, bundle, true);
+    }
 
-    public RecycleViewItem(String packageName, String appName, Drawable icon, long apkSize,
-                           long installedTime, long updatedTime) {
+    private RecycleViewItem(String packageName, String appName, long apkSize, long installedTime,
+                            long updatedTime, boolean systemApp, boolean enabled, boolean bundle, boolean resolved) {
         this.mPackageName = packageName;
         this.mAppName = appName;
-        this.mIcon = icon;
         this.mAPKSize = apkSize;
         this.mInstalledTime = installedTime;
         this.mUpdatedTime = updatedTime;
+        this.mSystemApp = systemApp;
+        this.mEnabled = enabled;
+        this.mBundle = bundle;
+        this.mResolved = resolved;
     }
 
     public String getPackageName() {
@@ -40,10 +47,6 @@ public class RecycleViewItem implements Serializable {
         return mAppName;
     }
 
-    public Drawable getIcon() {
-        return mIcon;
-    }
-
     public long getAPKSize() {
         return mAPKSize;
     }
@@ -56,4 +59,32 @@ public class RecycleViewItem implements Serializable {
         return mUpdatedTime;
     }
 
-}
\ No newline at end of file
+    public boolean isSystemApp() {
+        return mSystemApp;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public boolean isBundle() {
+        return mBundle;
+    }
+
+    // Whether label and size are known, as opposed to the placeholders of a quick scan
+    public boolean isResolved() {
+        return mResolved;
+    }
+
+    RecycleViewItem resolved(String appName, long apkSize) {
+        return new RecycleViewItem(mPackageName, appName, apkSize, mInstalledTime, mUpdatedTime, mSystemApp,
+                mEnabled, mBundle, true);
+    }
+
+    // The same package, to be labelled again
+    RecycleViewItem unresolved() {
+        return new RecycleViewItem(mPackageName, mAppName, mAPKSize, mInstalledTime, mUpdatedTime, mSystemApp,
+                mEnabled, mBundle, false);
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Inverted n-gram index over the lower-cased labels and package names of the inventory. Trigrams
+ * narrow down the candidates of a query, unigrams and bigrams serve queries shorter than that.
+ * An index is never changed once built: the index of a new inventory version is derived from the
+ * previous one, so columns of an older version keep searching their own.
+ */
+public class SearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    static final SearchIndex EMPTY = new SearchIndex();
+
+    private final BitSet mFree;
+    private final List<String> mAppNames, mPackageNames;
+    private final Map<String, Integer> mDocIds;
+    private final Map<String, Postings> mPostings;
+    private int[] mRows = new int[0];
+    // Posting lists created or copied by the update in progress, the others are shared with the previous index
+    private Set<Postings> mOwned = null;
+
+    private SearchIndex() {
+        mFree = new BitSet();
+        mAppNames = new ArrayList<>();
+        mPackageNames = new ArrayList<>();
+        mDocIds = new HashMap<>();
+        mPostings = new HashMap<>();
+    }
+
+    private SearchIndex(SearchIndex previous) {
+        mFree = (BitSet) previous.mFree.clone();
+        mAppNames = new ArrayList<>(previous.mAppNames);
+        mPackageNames = new ArrayList<>(previous.mPackageNames);
+        mDocIds = new HashMap<>(previous.mDocIds);
+        mPostings = new HashMap<>(previous.mPostings);
+    }
+
+    /*
+     * Returns the index of the given inventory, this one is left as it is. Only packages which were
+     * added, removed or relabelled are re-indexed, the others keep their doc id.
+     */
+    public SearchIndex update(RecycleViewItem[] items) {
+        SearchIndex index = new SearchIndex(this);
+        index.mOwned = Collections.newSetFromMap(new IdentityHashMap<>());
+        int[] mRows = new int[items.length];
+        Set<String> mPresent = new HashSet<>(items.length * 2);
+        for (int i = 0; i < items.length; i++) {
+            RecycleViewItem item = items[i];
+            mPresent.add(item.getPackageName());
+            Integer docId = index.mDocIds.get(item.getPackageName());
+            // Compared by label, the same package may have been relabelled (resolved or another language)
+            if (docId != null && !index.mAppNames.get(docId).equals(item.getAppName().toLowerCase(Locale.ROOT))) {
+                index.remove(item.getPackageName(), docId);
+                docId = null;
+            }
+            if (docId == null) {
+                docId = index.add(item);
+            }
+            mRows[i] = docId;
+        }
+        if (mPresent.size() < index.mDocIds.size()) {
+            for (String packageName : new ArrayList<>(index.mDocIds.keySet())) {
+                if (!mPresent.contains(packageName)) {
+                    index.remove(packageName, index.mDocIds.get(packageName));
+                }
+            }
+        }
+        index.mRows = mRows;
+        index.mOwned = null;
+        return index;
+    }
+
+    // Doc id of each row of the inventory this index was built for
+    public int[] getRows() {
+        return mRows;
+    }
+
+    private Postings edit(String gram) {
+        Postings postings = mPostings.get(gram);
+        if (postings == null || !mOwned.contains(postings)) {
+            postings = postings == null ? new Postings() : postings.copy();
+            mPostings.put(gram, postings);
+            mOwned.add(postings);
+        }
+        return postings;
+    }
+
+    private int add(RecycleViewItem item) {
+        int docId = mFree.nextSetBit(0);
+        String appName = item.getAppName().toLowerCase(Locale.ROOT);
+        String packageName = item.getPackageName().toLowerCase(Locale.ROOT);
+        if (docId < 0) {
+            docId = mAppNames.size();
+            mAppNames.add(appName);
+            mPackageNames.add(packageName);
+        } else {
+            mFree.clear(docId);
+            mAppNames.set(docId, appName);
+            mPackageNames.set(docId, packageName);
+        }
+        mDocIds.put(item.getPackageName(), docId);
+        for (String gram : getGrams(appName, packageName)) {
+            edit(gram).add(docId);
+        }
+        return docId;
+    }
+
+    private void remove(String packageName, int docId) {
+        for (String gram : getGrams(mAppNames.get(docId), mPackageNames.get(docId))) {
+            if (!mPostings.containsKey(gram)) continue;
+            Postings postings = edit(gram);
+            if (postings.remove(docId) && postings.mSize == 0) {
+                mPostings.remove(gram);
+            }
+        }
+        mDocIds.remove(packageName);
+        mAppNames.set(docId, null);
+        mPackageNames.set(docId, null);
+        mFree.set(docId);
+    }
+
+    private static Set<String> getGrams(String appName, String packageName) {
+        Set<String> mGrams = new HashSet<>();
+        for (String text : new String[] {appName, packageName}) {
+            for (int n = 1; n <= GRAM_SIZE; n++) {
+                for (int i = 0; i + n <= text.length(); i++) {
+                    mGrams.add(text.substring(i, i + n));
+                }
+            }
+        }
+        return mGrams;
+    }
+
+    /*
+     * Doc ids of the packages whose label or package name contains query. The posting lists of all the
+     * n-grams of the query are intersected and the few remaining candidates are checked as such.
+     */
+    public BitSet search(String query) {
+        BitSet mMatches = new BitSet(mAppNames.size());
+        String text = query.toLowerCase(Locale.ROOT);
+        if (text.isEmpty()) {
+            for (int docId : mRows) {
+                mMatches.set(docId);
+            }
+            return mMatches;
+        }
+        int n = Math.min(text.length(), GRAM_SIZE);
+        Postings[] mLists = new Postings[text.length() - n + 1];
+        for (int i = 0; i < mLists.length; i++) {
+            mLists[i] = mPostings.get(text.substring(i, i + n));
+            // A gram nobody has, nothing can match
+            if (mLists[i] == null) return mMatches;
+        }
+        Arrays.sort(mLists, (p1, p2) -> Integer.compare(p1.mSize, p2.mSize));
+        for (int i = 0; i < mLists[0].mSize; i++) {
+            int docId = mLists[0].mIds[i];
+            boolean candidate = true;
+            for (int j = 1; j < mLists.length && candidate; j++) {
+                candidate = mLists[j].contains(docId);
+            }
+            if (candidate && (n == text.length() || mAppNames.get(docId).contains(text)
+                    || mPackageNames.get(docId).contains(text))) {
+                mMatches.set(docId);
+            }
+        }
+        return mMatches;
+    }
+
+    // Sorted doc ids
+    private static class Postings {
+        private int[] mIds = new int[4];
+        private int mSize = 0;
+
+        private Postings copy() {
+            Postings postings = new Postings();
+            postings.mIds = Arrays.copyOf(mIds, Math.max(mSize, 4));
+            postings.mSize = mSize;
+            return postings;
+        }
+
+        private void add(int docId) {
+            int position = Arrays.binarySearch(mIds, 0, mSize, docId);
+            if (position >= 0) return;
+            position = -position - 1;
+            if (mSize == mIds.length) {
+                mIds = Arrays.copyOf(mIds, mSize * 2);
+            }
+            System.arraycopy(mIds, position, mIds, position + 1, mSize - position);
+            mIds[position] = docId;
+            mSize++;
+        }
+
+        private boolean remove(int docId) {
+            int position = Arrays.binarySearch(mIds, 0, mSize, docId);
+            if (position < 0) return false;
+            System.arraycopy(mIds, position + 1, mIds, position, mSize - position - 1);
+            mSize--;
+            return true;
+        }
+
+        private boolean contains(int docId) {
+            return Arrays.binarySearch(mIds, 0, mSize, docId) >= 0;
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Packages selected for batch operations, in the order they were selected. Membership checks and
+ * single changes take constant time.
+ */
+public class Selection {
+
+    private final Set<String> mPackages = new LinkedHashSet<>();
+    // Last package toggled by hand, one end of a range selection
+    private String mAnchor = null;
+
+    public synchronized boolean isSelected(String packageName) {
+        return mPackages.contains(packageName);
+    }
+
+    public synchronized int size() {
+        return mPackages.size();
+    }
+
+    public synchronized void select(String packageName) {
+        mPackages.add(packageName);
+    }
+
+    public synchronized void deselect(String packageName) {
+        mPackages.remove(packageName);
+    }
+
+    // Returns whether packageName is selected afterwards
+    public synchronized boolean toggle(String packageName) {
+        mAnchor = packageName;
+        if (mPackages.remove(packageName)) {
+            return false;
+        }
+        mPackages.add(packageName);
+        return true;
+    }
+
+    public synchronized void clear() {
+        mPackages.clear();
+        mAnchor = null;
+    }
+
+    public synchronized void selectAll(List<RecycleViewItem> items) {
+        for (RecycleViewItem item : items) {
+            mPackages.add(item.getPackageName());
+        }
+    }
+
+    public synchronized boolean isAllSelected(List<RecycleViewItem> items) {
+        if (mPackages.size() < items.size()) return false;
+        for (RecycleViewItem item : items) {
+            if (!mPackages.contains(item.getPackageName())) return false;
+        }
+        return true;
+    }
+
+    public synchronized void invert(List<RecycleViewItem> items) {
+        for (RecycleViewItem item : items) {
+            if (!mPackages.remove(item.getPackageName())) {
+                mPackages.add(item.getPackageName());
+            }
+        }
+    }
+
+    /*
+     * Selects every row between the anchor (the package last toggled) and position, both included.
+     * Returns the first position of the range, or -1 if the anchor is not part of items.
+     */
+    public synchronized int selectRange(List<RecycleViewItem> items, int position) {
+        int anchor = -1;
+        for (int i = 0; i < items.size() && anchor < 0; i++) {
+            if (items.get(i).getPackageName().equals(mAnchor)) {
+                anchor = i;
+            }
+        }
+        if (anchor < 0) return -1;
+        int from = Math.min(anchor, position), to = Math.max(anchor, position);
+        for (int i = from; i <= to; i++) {
+            mPackages.add(items.get(i).getPackageName());
+        }
+        mAnchor = items.get(position).getPackageName();
+        return from;
+    }
+
+    public synchronized String getFirst() {
+        Iterator<String> iterator = mPackages.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    public synchronized void removeFirst() {
+        Iterator<String> iterator = mPackages.iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    // A copy in selection order, safe to iterate while the selection changes
+    public synchronized List<String> getSnapshot() {
+        return new ArrayList<>(mPackages);
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.preference.PreferenceManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * All preferences, read from disk once and then served from memory. Changes apply in memory right
+ * away, are written back in the background and reported to the listeners. The settings the package
+ * list is queried with are also kept decoded in fields.
+ */
+public class Settings {
+
+    public static final int APPS_ALL = 0;
+    public static final int APPS_SYSTEM = 1;
+    public static final int APPS_USER = 2;
+
+    private static volatile Settings mSettings = null;
+
+    private final List<OnChangeListener> mListeners = new ArrayList<>();
+    private final Map<String, Object> mValues = new ConcurrentHashMap<>();
+    private final SharedPreferences mPreferences;
+    private volatile boolean mFuzzySearch, mReverseOrder;
+    private volatile int mAppTypes, mSortMode, mUserId;
+
+    public interface OnChangeListener {
+        void onChanged(String name);
+    }
+
+    private Settings(Context context) {
+        mPreferences = PreferenceManager.getDefaultSharedPreferences(context);
+        for (Map.Entry<String, ?> entry : mPreferences.getAll().entrySet()) {
+            if (entry.getValue() != null) {
+                mValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        decode();
+    }
+
+    public static Settings get(Context context) {
+        if (mSettings == null) {
+            synchronized (Settings.class) {
+                if (mSettings == null) {
+                    mSettings = new Settings(context.getApplicationContext());
+                }
+            }
+        }
+        return mSettings;
+    }
+
+    private void decode() {
+        String appTypes = getString("appTypes", "all");
+        mAppTypes = appTypes.equals("system") ? APPS_SYSTEM : appTypes.equals("user") ? APPS_USER : APPS_ALL;
+        if (getBoolean("sort_name", false)) {
+            mSortMode = PackageColumns.SORT_NAME;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && getBoolean("sort_size", false)) {
+            mSortMode = PackageColumns.SORT_SIZE;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && getBoolean("sort_installed", false)) {
+            mSortMode = PackageColumns.SORT_INSTALLED;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && getBoolean("sort_updated", false)) {
+            mSortMode = PackageColumns.SORT_UPDATED;
+        } else if (getBoolean("sort_footprint", false)) {
+            mSortMode = PackageColumns.SORT_FOOTPRINT;
+        } else {
+            mSortMode = PackageColumns.SORT_ID;
+        }
+        mReverseOrder = getBoolean("reverse_order", false);
+        mFuzzySearch = getBoolean("fuzzy_search", false);
+        mUserId = getInt("user_id", -1);
+    }
+
+    public int getAppTypes() {
+        return mAppTypes;
+    }
+
+    public int getSortMode() {
+        return mSortMode;
+    }
+
+    // The user whose packages are listed, -1 for the one this app runs as
+    public int getUserId() {
+        return mUserId;
+    }
+
+    public boolean isReverseOrder() {
+        return mReverseOrder;
+    }
+
+    public boolean isFuzzySearch() {
+        return mFuzzySearch;
+    }
+
+    public boolean getBoolean(String name, boolean defaults) {
+        Object value = mValues.get(name);
+        return value instanceof Boolean ? (Boolean) value : defaults;
+    }
+
+    public int getInt(String name, int defaults) {
+        Object value = mValues.get(name);
+        return value instanceof Integer ? (Integer) value : defaults;
+    }
+
+    public String getString(String name, String defaults) {
+        Object value = mValues.get(name);
+        return value instanceof String ? (String) value : defaults;
+    }
+
+    public void putBoolean(String name, boolean value) {
+        if (!Boolean.valueOf(value).equals(mValues.put(name, value))) {
+            mPreferences.edit().putBoolean(name, value).apply();
+            onChanged(name);
+        }
+    }
+
+    public void putInt(String name, int value) {
+        if (!Integer.valueOf(value).equals(mValues.put(name, value))) {
+            mPreferences.edit().putInt(name, value).apply();
+            onChanged(name);
+        }
+    }
+
+    public void putString(String name, String value) {
+        Object previous = value != null ? mValues.put(name, value) : mValues.remove(name);
+        if (value == null ? previous != null : !value.equals(previous)) {
+            mPreferences.edit().putString(name, value).apply();
+            onChanged(name);
+        }
+    }
+
+    private void onChanged(String name) {
+        decode();
+        List<OnChangeListener> mCopy;
+        synchronized (mListeners) {
+            mCopy = new ArrayList<>(mListeners);
+        }
+        for (OnChangeListener listener : mCopy) {
+            listener.onChanged(name);
+        }
+    }
+
+    // Listeners are called on the thread that made the change
+    public void addListener(OnChangeListener listener) {
+        synchronized (mListeners) {
+            mListeners.add(listener);
+        }
+    }
+
+    public void removeListener(OnChangeListener listener) {
+        synchronized (mListeners) {
+            mListeners.remove(listener);
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * The APKs a package is installed from, with their sizes in bytes. Taken from the paths PackageManager
+ * reports instead of listing the app folder, and kept until the package is updated.
+ */
+public class SplitInventory {
+
+    public static final int TYPE_BASE = 0;
+    public static final int TYPE_FEATURE = 1;
+    public static final int TYPE_ABI = 2;
+    public static final int TYPE_DENSITY = 3;
+    public static final int TYPE_LANGUAGE = 4;
+
+    private static final Set<String> ABIS = new HashSet<>(Arrays.asList("armeabi", "armeabi_v7a", "arm64_v8a",
+            "x86", "x86_64", "mips", "mips64"));
+
+    private static final Map<String, SplitInventory> mInventories = new ConcurrentHashMap<>();
+
+    private final List<Split> mSplits;
+    private final long mTotalSize, mUpdatedTime;
+
+    public static class Split {
+        private final int mType;
+        private final long mSize;
+        private final String mPath;
+
+        private Split(String path, int type) {
+            this.mPath = path;
+            this.mType = type;
+            this.mSize = new File(path).length();
+        }
+
+        // File name, e.g. split_config.arm64_v8a.apk
+        public String getName() {
+            return new File(mPath).getName();
+        }
+
+        public String getPath() {
+            return mPath;
+        }
+
+        public long getSize() {
+            return mSize;
+        }
+
+        public int getType() {
+            return mType;
+        }
+    }
+
+    private SplitInventory(ApplicationInfo appInfo, long updatedTime) {
+        List<Split> splits = new ArrayList<>();
+        long total = 0;
+        if (appInfo.sourceDir != null) {
+            splits.add(new Split(appInfo.sourceDir, TYPE_BASE));
+        }
+        if (appInfo.splitSourceDirs != null) {
+            for (String path : appInfo.splitSourceDirs) {
+                splits.add(new Split(path, getType(new File(path).getName())));
+            }
+        }
+        for (Split split : splits) {
+            total += split.getSize();
+        }
+        this.mSplits = Collections.unmodifiableList(splits);
+        this.mTotalSize = total;
+        this.mUpdatedTime = updatedTime;
+    }
+
+    public static SplitInventory of(ApplicationInfo appInfo, long updatedTime) {
+        SplitInventory inventory = mInventories.get(appInfo.packageName);
+        if (inventory == null || inventory.mUpdatedTime != updatedTime) {
+            inventory = new SplitInventory(appInfo, updatedTime);
+            mInventories.put(appInfo.packageName, inventory);
+        }
+        return inventory;
+    }
+
+    // Empty if the package is not installed
+    public static SplitInventory of(String packageName, Context context) {
+        try {
+            PackageInfo packageInfo = PackageData.getPackageManager(context).getPackageInfo(packageName, 0);
+            return of(packageInfo.applicationInfo, packageInfo.lastUpdateTime);
+        } catch (PackageManager.NameNotFoundException ignored) {
+        }
+        mInventories.remove(packageName);
+        return new SplitInventory(new ApplicationInfo(), 0);
+    }
+
+    // Called once the package is removed
+    public static void invalidate(String packageName) {
+        mInventories.remove(packageName);
+    }
+
+    /*
+     * Split names follow the bundletool scheme: split_config.<abi|density|language>.apk for
+     * configuration splits, anything else is a feature module.
+     */
+    private static int getType(String name) {
+        String split = name.toLowerCase(Locale.ROOT);
+        if (split.endsWith(".apk")) {
+            split = split.substring(0, split.length() - 4);
+        }
+        if (split.startsWith("split_")) {
+            split = split.substring(6);
+        }
+        if (!split.startsWith("config.")) {
+            return TYPE_FEATURE;
+        }
+        String qualifier = split.substring(7);
+        if (ABIS.contains(qualifier)) {
+            return TYPE_ABI;
+        } else if (qualifier.endsWith("dpi")) {
+            return TYPE_DENSITY;
+        }
+        return TYPE_LANGUAGE;
+    }
+
+    public List<Split> getSplits() {
+        return mSplits;
+    }
+
+    public List<String> getNames() {
+        List<String> mNames = new ArrayList<>(mSplits.size());
+        for (Split split : mSplits) {
+            mNames.add(split.getName());
+        }
+        return mNames;
+    }
+
+    // Base and split APKs together
+    public long getTotalSize() {
+        return mTotalSize;
+    }
+
+    // Installed from more than one APK
+    public boolean isBundle() {
+        return mSplits.size() > 1;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Made up packages, the same ones for the same seed and settings. Labels, sizes, install times,
+ * splits and permissions are random, system and disabled apps are mixed in at about the rate of a
+ * real device. Each call can be delayed to stand in for a slow PackageManager.
+ */
+public class SyntheticPackageSource implements PackageSource {
+
+    private static final long BASE_TIME = 1600000000000L;
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final String[] PERMISSIONS = {
+            "android.permission.INTERNET",
+            "android.permission.CAMERA",
+            "android.permission.RECORD_AUDIO",
+            "android.permission.READ_CONTACTS",
+            "android.permission.ACCESS_FINE_LOCATION",
+            "android.permission.READ_EXTERNAL_STORAGE",
+            "android.permission.WRITE_EXTERNAL_STORAGE",
+            "android.permission.RECEIVE_BOOT_COMPLETED",
+            "android.permission.WAKE_LOCK",
+            "android.permission.VIBRATE"
+    };
+
+    private final int mCount;
+    private final long mSeed;
+    private int mLabelLength = 16, mMaxSplits = 4;
+    private long mQueryLatency = 0, mLookupLatency = 0;
+    private List<Entry> mEntries = null;
+    private Map<String, Entry> mIndex = null;
+
+    private static class Entry {
+        private final String mPackageName, mLabel;
+        private final long mSize, mFirstInstallTime, mLastUpdateTime;
+        private final boolean mSystem, mEnabled;
+        private final int mSplits;
+        private final String[] mPermissions;
+
+        private Entry(String packageName, String label, long size, long firstInstallTime, long lastUpdateTime,
+                      boolean system, boolean enabled, int splits, String[] permissions) {
+            this.mPackageName = packageName;
+            this.mLabel = label;
+            this.mSize = size;
+            this.mFirstInstallTime = firstInstallTime;
+            this.mLastUpdateTime = lastUpdateTime;
+            this.mSystem = system;
+            this.mEnabled = enabled;
+            this.mSplits = splits;
+            this.mPermissions = permissions;
+        }
+    }
+
+    public SyntheticPackageSource(int count, long seed) {
+        this.mCount = count;
+        this.mSeed = seed;
+    }
+
+    // Longest label generated, labels are one or more words of up to this many characters in total
+    public synchronized SyntheticPackageSource setLabelLength(int length) {
+        mLabelLength = Math.max(1, length);
+        mEntries = null;
+        return this;
+    }
+
+    // Each package gets between none and this many split APKs
+    public synchronized SyntheticPackageSource setMaxSplits(int splits) {
+        mMaxSplits = Math.max(0, splits);
+        mEntries = null;
+        return this;
+    }
+
+    // Delay in ms of getInstalledPackages() and of every other call
+    public synchronized SyntheticPackageSource setLatency(long query, long lookup) {
+        mQueryLatency = query;
+        mLookupLatency = lookup;
+        return this;
+    }
+
+    private synchronized List<Entry> getEntries() {
+        if (mEntries == null) {
+            Random random = new Random(mSeed);
+            List<Entry> entries = new ArrayList<>(mCount);
+            Map<String, Entry> index = new HashMap<>(mCount * 2);
+            for (int i = 0; i < mCount; i++) {
+                String packageName = "com." + getWord(random, 3, 8) + "." + getWord(random, 3, 10) + i;
+                long firstInstallTime = BASE_TIME + (long) (random.nextDouble() * 365 * DAY);
+                String[] permissions = new String[random.nextInt(PERMISSIONS.length + 1)];
+                for (int p = 0; p < permissions.length; p++) {
+                    permissions[p] = PERMISSIONS[(i + p) % PERMISSIONS.length];
+                }
+                Entry entry = new Entry(packageName,
+                        getLabel(random),
+                        1024 + (long) (random.nextDouble() * 200 * 1024 * 1024),
+                        firstInstallTime,
+                        firstInstallTime + (long) (random.nextDouble() * 180 * DAY),
+                        random.nextInt(10) < 3,
+                        random.nextInt(20) != 0,
+                        random.nextInt(mMaxSplits + 1),
+                        permissions);
+                entries.add(entry);
+                index.put(packageName, entry);
+            }
+            mEntries = Collections.unmodifiableList(entries);
+            mIndex = index;
+        }
+        return mEntries;
+    }
+
+    private Entry getEntry(String packageName) throws PackageManager.NameNotFoundException {
+        getEntries();
+        Entry entry;
+        synchronized (this) {
+            entry = mIndex.get(packageName);
+        }
+        if (entry == null) {
+            throw new PackageManager.NameNotFoundException(packageName);
+        }
+        return entry;
+    }
+
+    private static String getWord(Random random, int min, int max) {
+        StringBuilder sb = new StringBuilder();
+        int length = min + random.nextInt(max - min + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private String getLabel(Random random) {
+        int length = 1 + random.nextInt(mLabelLength);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            String word = getWord(random, 1, 10);
+            sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return sb.substring(0, length).trim();
+    }
+
+    private static void sleep(long latency) {
+        if (latency <= 0) return;
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ApplicationInfo getAppInfo(Entry entry) {
+        ApplicationInfo appInfo = new ApplicationInfo();
+        appInfo.packageName = entry.mPackageName;
+        appInfo.sourceDir = "/data/app/" + entry.mPackageName + "/base.apk";
+        if (entry.mSplits > 0) {
+            appInfo.splitSourceDirs = new String[entry.mSplits];
+            for (int i = 0; i < entry.mSplits; i++) {
+                appInfo.splitSourceDirs[i] = "/data/app/" + entry.mPackageName + "/split_config." + i + ".apk";
+            }
+        }
+        appInfo.flags = entry.mSystem ? ApplicationInfo.FLAG_SYSTEM : 0;
+        appInfo.enabled = entry.mEnabled;
+        return appInfo;
+    }
+
+    // Fresh objects on every call, as callers may change them
+    private static PackageInfo getPackageInfo(Entry entry, int flags) {
+        PackageInfo packageInfo = new PackageInfo();
+        packageInfo.packageName = entry.mPackageName;
+        packageInfo.firstInstallTime = entry.mFirstInstallTime;
+        packageInfo.lastUpdateTime = entry.mLastUpdateTime;
+        packageInfo.applicationInfo = getAppInfo(entry);
+        if ((flags & PackageManager.GET_PERMISSIONS) != 0) {
+            packageInfo.requestedPermissions = entry.mPermissions.clone();
+        }
+        return packageInfo;
+    }
+
+    @Override
+    public List<PackageInfo> getInstalledPackages(int flags) {
+        sleep(mQueryLatency);
+        List<Entry> entries = getEntries();
+        List<PackageInfo> mPackages = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            mPackages.add(getPackageInfo(entry, flags));
+        }
+        return mPackages;
+    }
+
+    @Override
+    public PackageInfo getPackageInfo(String packageName, int flags) throws PackageManager.NameNotFoundException {
+        sleep(mLookupLatency);
+        return getPackageInfo(getEntry(packageName), flags);
+    }
+
+    @Override
+    public ApplicationInfo getApplicationInfo(String packageName, int flags) throws PackageManager.NameNotFoundException {
+        sleep(mLookupLatency);
+        return getAppInfo(getEntry(packageName));
+    }
+
+    @Override
+    public String getLabel(ApplicationInfo appInfo) {
+        sleep(mLookupLatency);
+        try {
+            return getEntry(appInfo.packageName).mLabel;
+        } catch (PackageManager.NameNotFoundException ignored) {
+            return appInfo.packageName;
+        }
+    }
+
+    @Override
+    public long getAPKSize(ApplicationInfo appInfo, long updatedTime) {
+        try {
+            return getEntry(appInfo.packageName).mSize;
+        } catch (PackageManager.NameNotFoundException ignored) {
+            return 0;
+        }
+    }
+
+}
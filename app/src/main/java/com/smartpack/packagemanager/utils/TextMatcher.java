@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.graphics.Typeface;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.StyleSpan;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Case-insensitive substring and fuzzy (subsequence) matching, comparing characters in place.
+ */
+public class TextMatcher {
+
+    public static int indexOf(String text, String query, int from) {
+        int length = query.length();
+        for (int i = from; i + length <= text.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static boolean matches(String text, String query) {
+        return indexOf(text, query, 0) >= 0;
+    }
+
+    /*
+     * Non-overlapping matches of query in text as {start, end, start, end, ...}, empty if there are none
+     */
+    public static int[] getRanges(String text, String query) {
+        int[] mRanges = new int[0];
+        if (query.isEmpty()) return mRanges;
+        int count = 0;
+        for (int i = indexOf(text, query, 0); i >= 0; i = indexOf(text, query, i + query.length())) {
+            if (count == mRanges.length) {
+                mRanges = Arrays.copyOf(mRanges, Math.max(2, count * 2));
+            }
+            mRanges[count++] = i;
+            mRanges[count++] = i + query.length();
+        }
+        return count == mRanges.length ? mRanges : Arrays.copyOf(mRanges, count);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '_' || c == '-' || c == ' ';
+    }
+
+    /*
+     * Scores text as a fuzzy match of the lower-cased query, or returns -1 if the characters of query
+     * do not all appear in text in order. Matches at word or package segment starts and on camel-case
+     * humps as well as consecutive matches are worth more, characters skipped in between cost a little.
+     */
+    public static int fuzzyScore(String text, String query) {
+        int length = query.length();
+        if (length == 0) return 0;
+        // Earliest end of a match, then backwards from there for the tightest start
+        int q = 0, end = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.toLowerCase(text.charAt(i)) == query.charAt(q) && ++q == length) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) return -1;
+        int start = end;
+        q = length - 1;
+        for (int i = end; i >= 0; i--) {
+            if (Character.toLowerCase(text.charAt(i)) == query.charAt(q) && --q < 0) {
+                start = i;
+                break;
+            }
+        }
+        int score = 0;
+        boolean consecutive = false;
+        q = 0;
+        for (int i = start; i <= end && q < length; i++) {
+            char c = text.charAt(i);
+            if (Character.toLowerCase(c) == query.charAt(q)) {
+                score += 16;
+                if (i == 0 || isSeparator(text.charAt(i - 1))) {
+                    score += 10;
+                } else if (Character.isUpperCase(c) && Character.isLowerCase(text.charAt(i - 1))) {
+                    score += 8;
+                }
+                if (consecutive) {
+                    score += 6;
+                }
+                consecutive = true;
+                q++;
+            } else {
+                consecutive = false;
+                score--;
+            }
+        }
+        return Math.max(score, 0);
+    }
+
+    /*
+     * Characters of text matching the lower-cased query in the window fuzzyScore() scores, as ranges
+     * like getRanges(). Empty if query is not a subsequence of text.
+     */
+    public static int[] getFuzzyRanges(String text, String query) {
+        int length = query.length();
+        if (length == 0) return new int[0];
+        int q = 0, end = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.toLowerCase(text.charAt(i)) == query.charAt(q) && ++q == length) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) return new int[0];
+        int[] mPositions = new int[length];
+        q = length - 1;
+        for (int i = end; i >= 0 && q >= 0; i--) {
+            if (Character.toLowerCase(text.charAt(i)) == query.charAt(q)) {
+                mPositions[q--] = i;
+            }
+        }
+        // Consecutive characters make up one range
+        int[] mRanges = new int[length * 2];
+        int count = 0;
+        for (int position : mPositions) {
+            if (count > 0 && mRanges[count - 1] == position) {
+                mRanges[count - 1]++;
+            } else {
+                mRanges[count++] = position;
+                mRanges[count++] = position + 1;
+            }
+        }
+        return Arrays.copyOf(mRanges, count);
+    }
+
+    public static boolean fuzzyMatches(String text, String query) {
+        return getFuzzyRanges(text, query.toLowerCase(Locale.ROOT)).length > 0;
+    }
+
+    // Substring matches first, the characters of a fuzzy match otherwise if fuzzy is set
+    public static CharSequence highlight(String text, String query, boolean fuzzy, int color) {
+        int[] mRanges = getRanges(text, query);
+        if (mRanges.length == 0 && fuzzy) {
+            mRanges = getFuzzyRanges(text, query.toLowerCase(Locale.ROOT));
+        }
+        if (mRanges.length == 0) return text;
+        SpannableString mText = new SpannableString(text);
+        for (int i = 0; i < mRanges.length; i += 2) {
+            mText.setSpan(new StyleSpan(Typeface.BOLD_ITALIC), mRanges[i], mRanges[i + 1], Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            mText.setSpan(new ForegroundColorSpan(color), mRanges[i], mRanges[i + 1], Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return mText;
+    }
+
+}
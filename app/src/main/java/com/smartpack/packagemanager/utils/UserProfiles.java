@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Process;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Secondary users and work profiles (root only). Their package lists are read with a single shell
+ * call and turned into one inventory per user in parallel. Apps installed for more than one user
+ * share the same item as long as their state is the same. Every load is posted to a stream.
+ */
+public class UserProfiles {
+
+    private static final Pattern USER_INFO = Pattern.compile("UserInfo\\{(\\d+):([^:}]*)");
+
+    private static volatile List<User> mUsers = Collections.emptyList();
+    private static final Map<Integer, PackageRepository.Inventory> mInventories = new ConcurrentHashMap<>();
+    private static final Map<Integer, Set<String>> mDisabled = new ConcurrentHashMap<>();
+    private static final MutableLiveData<List<User>> mStream = new MutableLiveData<>();
+
+    public static class User {
+        private final int mId;
+        private final String mName;
+
+        private User(int id, String name) {
+            this.mId = id;
+            this.mName = name;
+        }
+
+        public int getId() {
+            return mId;
+        }
+
+        public String getName() {
+            return mName;
+        }
+    }
+
+    // The user this app runs as
+    public static int getOwnUserId() {
+        return Process.myUid() / 100000;
+    }
+
+    public static boolean isMultiUser() {
+        return mUsers.size() > 1;
+    }
+
+    public static List<User> getUsers() {
+        return mUsers;
+    }
+
+    public static LiveData<List<User>> getStream() {
+        return mStream;
+    }
+
+    // The user whose packages are shown, -1 for this user or once the saved one is gone
+    public static int getSelectedUserId(Context context) {
+        int userId = Settings.get(context).getUserId();
+        return userId >= 0 && mInventories.containsKey(userId) ? userId : -1;
+    }
+
+    // Same as above, but with the actual id of this user
+    public static int getShownUserId(Context context) {
+        int userId = getSelectedUserId(context);
+        return userId < 0 ? getOwnUserId() : userId;
+    }
+
+    // Null for this user, whose packages are the regular inventory
+    public static PackageRepository.Inventory getInventory(int userId) {
+        return mInventories.get(userId);
+    }
+
+    /*
+     * The users a batch operation acts on: every user if so chosen, otherwise the one whose packages
+     * are shown.
+     */
+    public static List<Integer> getTargetUsers(Context context) {
+        List<Integer> mTargets = new ArrayList<>();
+        if (isMultiUser() && Utils.getBoolean("batch_all_users", false, context)) {
+            for (User user : mUsers) {
+                mTargets.add(user.getId());
+            }
+        } else {
+            mTargets.add(getShownUserId(context));
+        }
+        return mTargets;
+    }
+
+    public static boolean isInstalled(int userId, String packageName) {
+        if (userId == getOwnUserId()) {
+            return InstalledState.isInstalled(packageName);
+        }
+        PackageRepository.Inventory inventory = mInventories.get(userId);
+        return inventory != null && inventory.getItem(packageName) != null;
+    }
+
+    public static boolean isEnabled(int userId, String packageName, Context context) {
+        if (userId == getOwnUserId()) {
+            return PackageData.isEnabled(packageName, context);
+        }
+        Set<String> disabled = mDisabled.get(userId);
+        return disabled == null || !disabled.contains(packageName);
+    }
+
+    public static void load(Context context) {
+        Context mContext = context.getApplicationContext();
+        new AsyncTasks() {
+            @Override
+            public void onPreExecute() {
+            }
+
+            @Override
+            public void doInBackground() {
+                loadUsers(mContext);
+            }
+
+            @Override
+            public void onPostExecute() {
+                // A user removed in the meantime (or a stale id) falls back to this user
+                Settings settings = Settings.get(mContext);
+                if (settings.getUserId() >= 0 && !mInventories.containsKey(settings.getUserId())) {
+                    settings.putInt("user_id", -1);
+                }
+                mStream.setValue(mUsers);
+            }
+        }.execute();
+    }
+
+    private static synchronized void loadUsers(Context context) {
+        if (!Utils.rootAccess()) {
+            clear();
+            return;
+        }
+        List<User> users = new ArrayList<>();
+        Matcher matcher = USER_INFO.matcher(Utils.runAndGetOutput("pm list users"));
+        while (matcher.find()) {
+            users.add(new User(Integer.parseInt(matcher.group(1)), matcher.group(2)));
+        }
+        if (users.size() < 2) {
+            clear();
+            return;
+        }
+        mUsers = Collections.unmodifiableList(users);
+
+        // One round trip through the root shell for the package lists of every other user
+        StringBuilder command = new StringBuilder();
+        for (User user : users) {
+            if (user.getId() == getOwnUserId()) continue;
+            command.append("echo user:").append(user.getId()).append("; pm list packages --user ").append(user.getId())
+                    .append("; echo disabled:").append(user.getId()).append("; pm list packages -d --user ").append(user.getId())
+                    .append("; ");
+        }
+        Map<Integer, List<String>> mPackages = new HashMap<>();
+        Map<Integer, Set<String>> disabled = new HashMap<>();
+        Collection<String> current = null;
+        for (String line : Utils.runAndGetOutput(command.toString()).split("\\n")) {
+            line = line.trim();
+            if (line.startsWith("user:")) {
+                List<String> mList = new ArrayList<>();
+                mPackages.put(Integer.parseInt(line.substring(5)), mList);
+                current = mList;
+            } else if (line.startsWith("disabled:")) {
+                Set<String> mSet = new HashSet<>();
+                disabled.put(Integer.parseInt(line.substring(9)), mSet);
+                current = mSet;
+            } else if (line.startsWith("package:") && current != null) {
+                current.add(line.substring(8));
+            }
+        }
+        mDisabled.putAll(disabled);
+        mDisabled.keySet().retainAll(disabled.keySet());
+        mInventories.keySet().retainAll(mPackages.keySet());
+        if (mPackages.isEmpty()) return;
+
+        PackageSource source = PackageData.getSource(context);
+        PackageRepository.Inventory own = PackageRepository.get();
+        // Items resolved for one user are reused for the next, keyed by package name and state
+        Map<String, RecycleViewItem> mShared = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(mPackages.size(), Runtime.getRuntime().availableProcessors()));
+        List<Future<?>> mTasks = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> entry : mPackages.entrySet()) {
+            mTasks.add(executor.submit(() -> {
+                Set<String> mDisabledPackages = disabled.get(entry.getKey());
+                List<RecycleViewItem> mItems = new ArrayList<>(entry.getValue().size());
+                for (String packageName : entry.getValue()) {
+                    boolean enabled = mDisabledPackages == null || !mDisabledPackages.contains(packageName);
+                    RecycleViewItem item = own.getItem(packageName);
+                    // Placeholders of a quick scan are only ever resolved in this user's inventory
+                    if (item == null || !item.isResolved() || item.isEnabled() != enabled) {
+                        item = mShared.get(packageName + ":" + enabled);
+                    }
+                    if (item == null) {
+                        item = getItem(packageName, enabled, source);
+                        if (item == null) continue;
+                        RecycleViewItem shared = mShared.putIfAbsent(packageName + ":" + enabled, item);
+                        if (shared != null) {
+                            item = shared;
+                        }
+                    }
+                    mItems.add(item);
+                }
+                mInventories.put(entry.getKey(), PackageRepository.create(mItems));
+            }));
+        }
+        for (Future<?> task : mTasks) {
+            try {
+                task.get();
+            } catch (Exception ignored) {
+            }
+        }
+        executor.shutdown();
+    }
+
+    private static void clear() {
+        mUsers = Collections.emptyList();
+        mInventories.clear();
+        mDisabled.clear();
+    }
+
+    private static RecycleViewItem getItem(String packageName, boolean enabled, PackageSource source) {
+        try {
+            // Also finds packages which are not installed for this user but for another one
+            PackageInfo packageInfo = source.getPackageInfo(packageName, PackageManager.GET_UNINSTALLED_PACKAGES);
+            ApplicationInfo appInfo = new ApplicationInfo(packageInfo.applicationInfo);
+            appInfo.enabled = enabled;
+            packageInfo.applicationInfo = appInfo;
+            return PackageData.getItem(packageInfo, source);
+        } catch (PackageManager.NameNotFoundException ignored) {
+        }
+        return null;
+    }
+
+}
@@ -19,8 +19,6 @@ import android.net.ConnectivityManager;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Environment;
-import android.preference.PreferenceManager;
-import android.provider.Settings;
 import android.text.Html;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
@@ -145,19 +143,27 @@ public class Utils {
      * Ref: https://github.com/Grarak/KernelAdiutor/blob/master/app/src/main/java/com/grarak/kerneladiutor/utils/Prefs.java
      */
     public static boolean getBoolean(String name, boolean defaults, Context context) {
-        return PreferenceManager.getDefaultSharedPreferences(context).getBoolean(name, defaults);
+        return Settings.get(context).getBoolean(name, defaults);
     }
 
     public static void saveBoolean(String name, boolean value, Context context) {
-        PreferenceManager.getDefaultSharedPreferences(context).edit().putBoolean(name, value).apply();
+        Settings.get(context).putBoolean(name, value);
+    }
+
+    public static int getInt(String name, int defaults, Context context) {
+        return Settings.get(context).getInt(name, defaults);
+    }
+
+    public static void saveInt(String name, int value, Context context) {
+        Settings.get(context).putInt(name, value);
     }
 
     public static String getString(String name, String defaults, Context context) {
-        return PreferenceManager.getDefaultSharedPreferences(context).getString(name, defaults);
+        return Settings.get(context).getString(name, defaults);
     }
 
     public static void saveString(String name, String value, Context context) {
-        PreferenceManager.getDefaultSharedPreferences(context).edit().putString(name, value).apply();
+        Settings.get(context).putString(name, value);
     }
 
     /*
@@ -335,7 +341,7 @@ public class Utils {
     @RequiresApi(30)
     public static void requestPermission(Activity activity) {
         Intent intent = new Intent();
-        intent.setAction(Settings.ACTION_MANAGE_APP_ALL_FILES_ACCESS_PERMISSION);
+        intent.setAction(android.provider.Settings.ACTION_MANAGE_APP_ALL_FILES_ACCESS_PERMISSION);
         Uri uri = Uri.fromParts("package", activity.getPackageName(), null);
         intent.setData(uri);
         activity.startActivity(intent);
@@ -413,6 +419,7 @@ public class Utils {
         Configuration conf = res.getConfiguration();
         conf.locale = myLocale;
         res.updateConfiguration(conf, dm);
+        LabelCache.setLocale(context);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2021-2022 sunilpaulmathew <sunil.kde@gmail.com>
+ *
+ * This file is part of Package Manager, a simple, yet powerful application
+ * to manage other application installed on an android device.
+ *
+ */
+
+package com.smartpack.packagemanager.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.text.Collator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Created by agent <agent@local> on October 18, 2026
+ *
+ * Loads, searches and sorts an inventory of a few thousand packages from a SyntheticPackageSource.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SyntheticInventoryTest {
+
+    private static final int COUNT = 5000;
+    private static final long SEED = 42;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        PackageData.setSource(new SyntheticPackageSource(COUNT, SEED).setMaxSplits(3));
+    }
+
+    @After
+    public void tearDown() {
+        PackageData.setSource(null);
+    }
+
+    private PackageColumns load() {
+        return PackageColumns.of(PackageRepository.create(PackageScanner.scan(mContext, null)));
+    }
+
+    @Test
+    public void scanListsEveryPackage() {
+        List<RecycleViewItem> mItems = PackageScanner.scan(mContext, null);
+        assertEquals(COUNT, mItems.size());
+        Set<String> mPackages = new HashSet<>();
+        for (RecycleViewItem item : mItems) {
+            assertTrue(item.isResolved());
+            assertFalse(item.getAppName().isEmpty());
+            assertTrue(item.getAPKSize() > 0);
+            assertTrue(item.getUpdatedTime() >= item.getInstalledTime());
+            mPackages.add(item.getPackageName());
+        }
+        assertEquals(COUNT, mPackages.size());
+    }
+
+    @Test
+    public void scanReusesCachedPackages() {
+        List<RecycleViewItem> mItems = PackageScanner.scan(mContext, null);
+        Map<String, RecycleViewItem> mCached = new HashMap<>();
+        for (RecycleViewItem item : mItems) {
+            mCached.put(item.getPackageName(), item);
+        }
+        List<RecycleViewItem> mRescanned = PackageScanner.scan(mContext, mCached);
+        assertEquals(mItems.size(), mRescanned.size());
+        for (int i = 0; i < mItems.size(); i++) {
+            assertSame(mItems.get(i), mRescanned.get(i));
+        }
+        // Nothing but the package query itself
+        assertEquals(1, PackageScanner.getPMCalls());
+    }
+
+    @Test
+    public void sameSeedSamePackages() {
+        List<RecycleViewItem> mItems = PackageScanner.scan(mContext, null);
+        PackageData.setSource(new SyntheticPackageSource(COUNT, SEED).setMaxSplits(3));
+        List<RecycleViewItem> mOther = PackageScanner.scan(mContext, null);
+        for (int i = 0; i < mItems.size(); i++) {
+            assertEquals(mItems.get(i).getPackageName(), mOther.get(i).getPackageName());
+            assertEquals(mItems.get(i).getAppName(), mOther.get(i).getAppName());
+            assertEquals(mItems.get(i).getAPKSize(), mOther.get(i).getAPKSize());
+        }
+    }
+
+    @Test
+    public void searchFindsEveryMatch() {
+        PackageColumns columns = load();
+        String label = columns.getItem(0).getAppName();
+        for (String text : new String[] {label.substring(0, Math.min(3, label.length())), "com.", "xyzzy", "a"}) {
+            int[] mIndex = new int[columns.size()];
+            int count = columns.filter(mIndex, PackageColumns.SORT_ID, 0, 0, text);
+            String query = text.toLowerCase(Locale.ROOT);
+            int expected = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                RecycleViewItem item = columns.getItem(i);
+                if (item.getAppName().toLowerCase(Locale.ROOT).contains(query)
+                        || item.getPackageName().toLowerCase(Locale.ROOT).contains(query)) {
+                    expected++;
+                }
+            }
+            assertEquals(text, expected, count);
+            for (int i = 0; i < count; i++) {
+                RecycleViewItem item = columns.getItem(mIndex[i]);
+                assertTrue(item.getAppName().toLowerCase(Locale.ROOT).contains(query)
+                        || item.getPackageName().toLowerCase(Locale.ROOT).contains(query));
+            }
+        }
+    }
+
+    @Test
+    public void filterKeepsTheAppType() {
+        PackageColumns columns = load();
+        int[] mIndex = new int[columns.size()];
+        int system = columns.filter(mIndex, PackageColumns.SORT_ID, PackageColumns.FLAG_SYSTEM, PackageColumns.FLAG_SYSTEM, null);
+        for (int i = 0; i < system; i++) {
+            assertTrue(columns.getItem(mIndex[i]).isSystemApp());
+        }
+        int user = columns.filter(mIndex, PackageColumns.SORT_ID, PackageColumns.FLAG_SYSTEM, 0, null);
+        for (int i = 0; i < user; i++) {
+            assertFalse(columns.getItem(mIndex[i]).isSystemApp());
+        }
+        assertEquals(COUNT, system + user);
+    }
+
+    @Test
+    public void sortOrdersEveryRow() {
+        PackageColumns columns = load();
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.SECONDARY);
+        int[] mIndex = new int[columns.size()];
+        for (int mode = PackageColumns.SORT_ID; mode <= PackageColumns.SORT_SIZE; mode++) {
+            int count = columns.filter(mIndex, mode, 0, 0, null);
+            assertEquals(COUNT, count);
+            List<RecycleViewItem> mView = columns.view(mIndex, count, false);
+            for (int i = 1; i < count; i++) {
+                RecycleViewItem previous = mView.get(i - 1), item = mView.get(i);
+                assertNotNull(item);
+                switch (mode) {
+                    case PackageColumns.SORT_NAME:
+                        assertTrue(collator.compare(previous.getAppName().toLowerCase(Locale.ROOT),
+                                item.getAppName().toLowerCase(Locale.ROOT)) <= 0);
+                        break;
+                    case PackageColumns.SORT_INSTALLED:
+                        assertTrue(previous.getInstalledTime() <= item.getInstalledTime());
+                        break;
+                    case PackageColumns.SORT_UPDATED:
+                        assertTrue(previous.getUpdatedTime() <= item.getUpdatedTime());
+                        break;
+                    case PackageColumns.SORT_SIZE:
+                        assertTrue(previous.getAPKSize() <= item.getAPKSize());
+                        break;
+                    default:
+                        assertTrue(previous.getPackageName().compareTo(item.getPackageName()) <= 0);
+                        break;
+                }
+            }
+            List<RecycleViewItem> mReversed = columns.view(mIndex, count, true);
+            assertSame(mView.get(0), mReversed.get(count - 1));
+        }
+    }
+
+}